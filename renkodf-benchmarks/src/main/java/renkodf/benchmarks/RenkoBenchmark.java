@@ -0,0 +1,165 @@
+package renkodf.benchmarks;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import renkodf.MultiRenko;
+import renkodf.ParallelRenko;
+import renkodf.Renko;
+import renkodf.RenkoMode;
+import renkodf.wrappers.OHLCV;
+
+/**
+ * Batch Renko: construction from the whole ticks list and renkodf(mode). <br>
+ * One operation is one full construction/conversion.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class RenkoBenchmark {
+
+	@Param({"EURGBP", "US30", "WALK_1M", "WALK_10M", "WALK_100M"})
+	public TickSet ticks;
+
+	private TickData data;
+	private List<OHLCV> ticksList;
+
+	@Setup(Level.Trial)
+	public void loadTicks() {
+		data = ticks.load();
+		ticksList = data.asOHLCVList();
+	}
+
+	@State(Scope.Benchmark)
+	public static class Built {
+
+		@Param({"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+		public String mode;
+
+		Renko renko;
+
+		@Setup(Level.Trial)
+		public void build(RenkoBenchmark input) {
+			renko = new Renko(input.ticksList, input.ticks.brickSize());
+		}
+	}
+
+	@Benchmark
+	public Renko construct() {
+		return new Renko(ticksList, ticks.brickSize());
+	}
+
+	/**
+	 * Same construction from the primitive columns, without OHLCV allocation/unboxing per tick.
+	 */
+	@Benchmark
+	public Renko constructArrays() {
+		return new Renko(data.times(), data.prices(), 0, data.size(), ticks.brickSize());
+	}
+
+	/**
+	 * Same as constructArrays with the SIMD scan of the prices inside the current brick.
+	 */
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+	public Renko constructArraysVector() {
+		return new Renko(data.times(), data.prices(), 0, data.size(), ticks.brickSize());
+	}
+
+	/**
+	 * Sequential fixed-point engine, the baseline of constructParallel.
+	 */
+	@Benchmark
+	public Renko constructFixedPoint() {
+		return new Renko(data.times(), data.prices(), 0, data.size(), ticks.brickSize(), ticks.tickSize());
+	}
+
+	/**
+	 * Same bricks of constructFixedPoint, chunks built on all cores of the common pool.
+	 */
+	@Benchmark
+	public Renko constructParallel() {
+		return ParallelRenko.build(data.times(), data.prices(), 0, data.size(), ticks.brickSize(), ticks.tickSize(),
+				ParallelRenko.DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Parameter sweep of 8 brick sizes, one pass over the ticks.
+	 */
+	@Benchmark
+	public MultiRenko constructSweepMulti() {
+		return new MultiRenko(ticksList, sweep());
+	}
+
+	/**
+	 * Parameter sweep of 8 brick sizes, one pass per size.
+	 */
+	@Benchmark
+	public void constructSweepEach(Blackhole bh) {
+		for (double brickSize : sweep()) {
+			bh.consume(new Renko(ticksList, brickSize));
+		}
+	}
+
+	private double[] sweep() {
+		double[] brickSizes = new double[8];
+		for (int b = 0; b < brickSizes.length; b++) {
+			brickSizes[b] = ticks.brickSize() * (b + 1) / 2;
+		}
+		return brickSizes;
+	}
+
+	@Benchmark
+	public List<OHLCV> renkodf(Built built) {
+		return built.renko.renkodf(built.mode);
+	}
+
+	@State(Scope.Benchmark)
+	public static class BuiltAll {
+
+		Renko renko;
+
+		@Setup(Level.Trial)
+		public void build(RenkoBenchmark input) {
+			renko = new Renko(input.ticksList, input.ticks.brickSize());
+		}
+	}
+
+	/**
+	 * All 7 modes, one renkodf call per mode.
+	 */
+	@Benchmark
+	public void renkodfEachMode(BuiltAll built, Blackhole bh) {
+		for (RenkoMode mode : RenkoMode.values()) {
+			bh.consume(built.renko.renkodf(mode));
+		}
+	}
+
+	/**
+	 * All 7 modes in a single pass over the bricks.
+	 */
+	@Benchmark
+	public Map<RenkoMode, List<OHLCV>> renkodfAllModes(BuiltAll built) {
+		return built.renko.renkodfAll(EnumSet.allOf(RenkoMode.class));
+	}
+}
@@ -0,0 +1,132 @@
+package renkodf.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import renkodf.RenkoMetrics;
+import renkodf.RenkoWS;
+import renkodf.benchmarks.TickData.RandomWalk;
+import renkodf.wrappers.OHLCV;
+
+/**
+ * Real-time RenkoWS.
+ * <ul>
+ * 	<li><strong>tick*</strong>: one operation is one tick of an endless random walk,
+ * 		ops/s is ticks/s and gc.alloc.rate.norm is bytes per tick.</li>
+ * 	<li><strong>replay*</strong>: one operation replays the whole tick set
+ * 		into a new RenkoWS, as a WebSocket session would.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class RenkoWSBenchmark {
+
+	@State(Scope.Thread)
+	public static class ModeParam {
+		@Param({"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+		public String mode;
+	}
+
+	@State(Scope.Thread)
+	public static class Feed {
+
+		RandomWalk walk;
+		RenkoWS renko;
+
+		@Setup(Level.Iteration)
+		public void newSession() {
+			walk = new RandomWalk(TickSet.SEED);
+			walk.next();
+			renko = new RenkoWS(walk.time(), walk.price(), TickSet.WALK_1M.brickSize());
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class MeteredFeed extends Feed {
+
+		@Setup(Level.Iteration)
+		public void enableMetrics() {
+			renko.setMetrics(new RenkoMetrics());
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Replay {
+
+		@Param({"EURGBP", "US30", "WALK_1M", "WALK_10M", "WALK_100M"})
+		public TickSet ticks;
+
+		TickData data;
+
+		@Setup(Level.Trial)
+		public void loadTicks() {
+			data = ticks.load();
+		}
+	}
+
+	@Benchmark
+	public boolean tickAddPrices(Feed feed) {
+		feed.walk.next();
+		return feed.renko.addPrices(feed.walk.time(), feed.walk.price());
+	}
+
+	@Benchmark
+	public boolean tickAddPrice(Feed feed) {
+		feed.walk.next();
+		return feed.renko.addPrice(feed.walk.time(), feed.walk.price());
+	}
+
+	/**
+	 * Same as tickAddPrice with RenkoMetrics enabled, tickAddPrice is the disabled path.
+	 */
+	@Benchmark
+	public boolean tickAddPriceMetrics(MeteredFeed feed) {
+		feed.walk.next();
+		return feed.renko.addPrice(feed.walk.time(), feed.walk.price());
+	}
+
+	@Benchmark
+	public List<OHLCV> tickAddPricesAnimate(Feed feed, ModeParam param) {
+		feed.walk.next();
+		feed.renko.addPrices(feed.walk.time(), feed.walk.price());
+		return feed.renko.renkoAnimate(param.mode);
+	}
+
+	@Benchmark
+	public RenkoWS replayAddPrices(Replay replay) {
+		TickData data = replay.data;
+		RenkoWS renko = new RenkoWS(data.time(0), data.price(0), replay.ticks.brickSize());
+		for (int i = 1; i < data.size(); i++) {
+			renko.addPrices(data.time(i), data.price(i));
+		}
+		return renko;
+	}
+
+	@Benchmark
+	public List<OHLCV> replayAddPricesAnimate(Replay replay, ModeParam param) {
+		TickData data = replay.data;
+		RenkoWS renko = new RenkoWS(data.time(0), data.price(0), replay.ticks.brickSize());
+		List<OHLCV> renkoList = null;
+		for (int i = 1; i < data.size(); i++) {
+			renko.addPrices(data.time(i), data.price(i));
+			renkoList = renko.renkoAnimate(param.mode);
+		}
+		return renkoList;
+	}
+}
@@ -0,0 +1,71 @@
+package renkodf.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import renkodf.RenkoWSModified;
+import renkodf.benchmarks.TickData.RandomWalk;
+import renkodf.wrappers.OHLCV;
+
+/**
+ * Real-time RenkoWSModified, same operations as {@link RenkoWSBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class RenkoWSModifiedBenchmark {
+
+	@State(Scope.Thread)
+	public static class Feed {
+
+		RandomWalk walk;
+		RenkoWSModified renko;
+
+		@Setup(Level.Iteration)
+		public void newSession() {
+			walk = new RandomWalk(TickSet.SEED);
+			walk.next();
+			renko = new RenkoWSModified(walk.time(), walk.price(), TickSet.WALK_1M.brickSize());
+		}
+	}
+
+	@Benchmark
+	public boolean tickAddPrices(Feed feed) {
+		feed.walk.next();
+		return feed.renko.addPrices(feed.walk.time(), feed.walk.price());
+	}
+
+	@Benchmark
+	public List<OHLCV> tickAddPricesAnimate(Feed feed, RenkoWSBenchmark.ModeParam param) {
+		feed.walk.next();
+		feed.renko.addPrices(feed.walk.time(), feed.walk.price());
+		return feed.renko.renkoAnimate(param.mode);
+	}
+
+	@Benchmark
+	public List<OHLCV> replayAddPricesAnimate(RenkoWSBenchmark.Replay replay, RenkoWSBenchmark.ModeParam param) {
+		TickData data = replay.data;
+		RenkoWSModified renko = new RenkoWSModified(data.time(0), data.price(0), replay.ticks.brickSize());
+		List<OHLCV> renkoList = null;
+		for (int i = 1; i < data.size(); i++) {
+			renko.addPrices(data.time(i), data.price(i));
+			renkoList = renko.renkoAnimate(param.mode);
+		}
+		return renkoList;
+	}
+}
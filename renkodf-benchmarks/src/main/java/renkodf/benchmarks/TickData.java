@@ -0,0 +1,157 @@
+package renkodf.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+
+import com.exasol.parquetio.data.Row;
+import com.exasol.parquetio.reader.RowParquetReader;
+
+import renkodf.wrappers.OHLCV;
+
+/**
+ * Primitive tick columns (epoch nanos + price) used as benchmark input.
+ */
+public final class TickData {
+
+	/** Directory of the "*_T1_cT.parquet" fixtures, override with -Drenkodf.resources=... */
+	private static final String RESOURCE_PATH = new File(
+			System.getProperty("renkodf.resources", "../src/test/resources")).getAbsolutePath();
+
+	private final long[] times;
+	private final double[] prices;
+
+	private TickData(long[] times, double[] prices) {
+		this.times = times;
+		this.prices = prices;
+	}
+
+	/**
+	 * Ticks of the test fixtures, e.g. "EURGBP" or "US30".
+	 */
+	public static TickData fromParquet(String symbol) {
+		List<Timestamp> rawTimes = new ArrayList<>();
+		List<Double> rawPrices = new ArrayList<>();
+		final Path path = new Path(RESOURCE_PATH + String.format("/%s_T1_cT.parquet", symbol));
+		final Configuration conf = new Configuration();
+		try (final ParquetReader<Row> reader = RowParquetReader.builder(HadoopInputFile.fromPath(path, conf)).build()) {
+			Row row = reader.read();
+			while (row != null) {
+				rawTimes.add((Timestamp) row.getValue("datetime"));
+				rawPrices.add(Double.valueOf(row.getValue("bid").toString()));
+				row = reader.read();
+			}
+		} catch (final IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+
+		long[] times = new long[rawTimes.size()];
+		double[] prices = new double[rawPrices.size()];
+		for (int i = 0; i < times.length; i++) {
+			Timestamp ts = rawTimes.get(i);
+			times[i] = Math.floorDiv(ts.getTime(), 1000L) * 1_000_000_000L + ts.getNanos();
+			prices[i] = rawPrices.get(i);
+		}
+		return new TickData(times, prices);
+	}
+
+	/**
+	 * Synthetic ticks, see {@link RandomWalk}.
+	 */
+	public static TickData randomWalk(int size, long seed) {
+		long[] times = new long[size];
+		double[] prices = new double[size];
+		RandomWalk walk = new RandomWalk(seed);
+		for (int i = 0; i < size; i++) {
+			walk.next();
+			times[i] = walk.time();
+			prices[i] = walk.price();
+		}
+		return new TickData(times, prices);
+	}
+
+	public int size() {
+		return prices.length;
+	}
+	public long time(int i) {
+		return times[i];
+	}
+	public double price(int i) {
+		return prices[i];
+	}
+	/**
+	 * The column itself, not a copy.
+	 */
+	public long[] times() {
+		return times;
+	}
+	/**
+	 * The column itself, not a copy.
+	 */
+	public double[] prices() {
+		return prices;
+	}
+
+	/**
+	 * Read-only OHLCV view, each tick is created on access
+	 * so 100M ticks fit in memory; the allocation is part of the measured work.
+	 */
+	public List<OHLCV> asOHLCVList() {
+		return new OHLCVView();
+	}
+
+	private class OHLCVView extends AbstractList<OHLCV> implements RandomAccess {
+		@Override
+		public OHLCV get(int index) {
+			return new OHLCV(times[index], prices[index]);
+		}
+		@Override
+		public int size() {
+			return prices.length;
+		}
+	}
+
+	/**
+	 * Endless price feed: a seeded random walk on a 0.00001 tick grid around 1.0
+	 * (EURGBP-like), one tick every 1-500 ms.
+	 */
+	public static final class RandomWalk {
+
+		private static final double TICK_SIZE = 0.00001;
+
+		private final SplittableRandom random;
+		private long ticks = 100_000;
+		private long time = 1_687_478_400_000_000_000L;
+		private double price;
+
+		public RandomWalk(long seed) {
+			random = new SplittableRandom(seed);
+		}
+
+		public void next() {
+			// Mostly 1 tick moves, sometimes a jump of up to 50 ticks
+			int move = random.nextInt(100) == 0 ? random.nextInt(1, 51) : 1;
+			ticks += random.nextBoolean() ? move : -move;
+			time += random.nextLong(1, 501) * 1_000_000L;
+			price = ticks * TICK_SIZE;
+		}
+
+		public long time() {
+			return time;
+		}
+		public double price() {
+			return price;
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package renkodf.benchmarks;
+
+/**
+ * Inputs of the benchmarks with their brick size and tick size.
+ */
+public enum TickSet {
+
+	EURGBP(0, 0.0003, 0.00001),
+	US30(0, 5D, 0.1),
+	WALK_1M(1_000_000, 0.0003, 0.00001),
+	WALK_10M(10_000_000, 0.0003, 0.00001),
+	WALK_100M(100_000_000, 0.0003, 0.00001);
+
+	static final long SEED = 42L;
+
+	private final int walkSize;
+	private final double brickSize;
+	private final double tickSize;
+
+	TickSet(int walkSize, double brickSize, double tickSize) {
+		this.walkSize = walkSize;
+		this.brickSize = brickSize;
+		this.tickSize = tickSize;
+	}
+
+	public double brickSize() {
+		return brickSize;
+	}
+
+	/**
+	 * Price increment of the fixed-point engine.
+	 */
+	public double tickSize() {
+		return tickSize;
+	}
+
+	public boolean isRandomWalk() {
+		return walkSize > 0;
+	}
+
+	public TickData load() {
+		return isRandomWalk() ? TickData.randomWalk(walkSize, SEED) : TickData.fromParquet(name());
+	}
+}
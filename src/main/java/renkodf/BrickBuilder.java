@@ -0,0 +1,315 @@
+package renkodf;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.List;
+
+import renkodf.wrappers.RSD;
+
+/**
+ * Floating-point brick construction shared by Renko, RenkoWS and RenkoWSModified,
+ * with the same arithmetic of renkoPython. <br>
+ * Holds the 'Renko Single Data' of the engine and the wick/volume of the current (loop) price.
+ */
+class BrickBuilder implements BrickEngine {
+
+	private final BrickStore store;
+	private final double brickSize;
+
+	private double wickMinInLoop;
+	private double wickMaxInLoop;
+	private double volumeInLoop;
+
+	// Price of the last brick and the band of prices that cannot add a brick, see updateTriggers()
+	private double lastPrice;
+	private double upLimit;
+	private double downLimit;
+
+	private Runnable brickHook;
+	private RenkoMetrics metrics;
+
+	BrickBuilder(BrickStore store, double brickSize) {
+		this.store = store;
+		this.brickSize = brickSize;
+	}
+
+	@Override
+	public void init(int tickIndex, long epochNanos, Object date, double price) {
+		double initialPrice = (Math.floor(price/brickSize)) * brickSize;
+		store.add(tickIndex, date != null ? BrickStore.toEpochNanos(date) : epochNanos, date, initialPrice, (byte) 0, initialPrice, 1D);
+
+		wickMinInLoop = initialPrice;
+		wickMaxInLoop = initialPrice;
+		volumeInLoop = 1D;
+		updateTriggers();
+	}
+
+	/**
+	 * Continue from existing 'Renko Single Data'.
+	 */
+	void init(List<RSD> externalRSD) {
+		for (RSD rsd : externalRSD) {
+			store.add(rsd);
+		}
+		updateTriggers();
+		wickMinInLoop = lastPrice;
+		wickMaxInLoop = lastPrice;
+		volumeInLoop = 1D;
+	}
+
+	/**
+	 * No objects are created unless a new brick is added.
+	 */
+	@Override
+	public boolean addPrice(int tickIndex, long epochNanos, Object date, double price) {
+
+		wickMinInLoop = price < wickMinInLoop ? price : wickMinInLoop;
+		wickMaxInLoop = price > wickMaxInLoop ? price : wickMaxInLoop;
+		volumeInLoop += 1D;
+
+		// Most ticks stay inside the band, where only the direction is needed
+		if (price <= upLimit && price >= downLimit) {
+			if (metrics != null) {
+				metrics.onTick(0, false);
+			}
+			// Same as 'currentDirection != 0', a non-zero difference divided by the brick size cannot be 0
+			return price != lastPrice;
+		}
+
+		int lastIndex = store.size()-1;
+		double currentNumberBricks = (price - lastPrice) / brickSize;
+		double currentDirection = Math.signum(currentNumberBricks);
+		if (currentDirection == 0) {
+			if (metrics != null) {
+				metrics.onTick(0, false);
+			}
+			return false;
+		}
+		byte lastDirection = store.getDirection(lastIndex);
+		boolean isSameDirection = (currentDirection > 0 && lastDirection >= 0) || (currentDirection < 0 && lastDirection <= 0);
+
+		// CURRENT PRICE in same direction of the LAST RENKO
+		double totalSameBricks = isSameDirection ? currentNumberBricks : 0;
+		/* >= 2 can be a 'GAP' or 'OPPOSITE DIRECTION'.
+		 * In both cases we add the current wick/volume to the first brick and 'reset' the value of both, since:
+		 * If it's a GAP:
+		 *	- The following bricks after first brick will be 'artificial' since the price has 'skipped' that price region.
+		 *	- (the reason of 'totalSameBricks')
+		 * If it's a OPPOSITE DIRECTION:
+		 *	- Only the first brick will be kept. (the reason of '2' multiply)
+		 */
+		boolean reversal = !isSameDirection && Math.abs(currentNumberBricks) >= 2;
+		if (reversal) {
+			addBrickLoop(tickIndex, epochNanos, date, 2, currentDirection, currentNumberBricks);
+			totalSameBricks = currentNumberBricks - (2 * currentDirection);
+		}
+
+		// Add all bricks in the same direction
+		int sameBricks = Math.abs((int) totalSameBricks);
+		// Bricks after the first one of this price
+		int runBricks = reversal ? sameBricks : sameBricks - 1;
+		if (runBricks > 0 && brickHook == null && store.isRunSupported()) {
+			if (!reversal) {
+				addBrickLoop(tickIndex, epochNanos, date, 1, currentDirection, currentNumberBricks);
+			}
+			addBrickRun(runBricks, currentNumberBricks);
+		} else {
+			for (int noUse = 0; noUse < sameBricks; noUse++) {
+				addBrickLoop(tickIndex, epochNanos, date, 1, currentDirection, currentNumberBricks);
+			}
+		}
+
+		if (metrics != null) {
+			metrics.onTick(reversal ? sameBricks + 1 : sameBricks, reversal);
+		}
+		updateTriggers();
+
+		return true;
+	}
+
+	/**
+	 * Precomputes the band [downLimit, upLimit] of prices that cannot add a brick to the last one,
+	 * same direction needs 1 brick and the opposite direction needs 2. <br>
+	 * The limits are the exact last prices whose '(price - lastPrice) / brickSize' stays inside,
+	 * found from 'lastPrice +/- bricks * brickSize' by a few ulps steps,
+	 * so the band gives the same result of the brick logic (subtraction and division are monotonic).
+	 */
+	private void updateTriggers() {
+		int lastIndex = store.size()-1;
+		lastPrice = store.getPrice(lastIndex);
+		byte lastDirection = store.getDirection(lastIndex);
+		double upBricks = lastDirection >= 0 ? 1 : 2;
+		double downBricks = lastDirection <= 0 ? -1 : -2;
+
+		double up = lastPrice + upBricks * brickSize;
+		while ((up - lastPrice) / brickSize >= upBricks) {
+			up = Math.nextDown(up);
+		}
+		while ((Math.nextUp(up) - lastPrice) / brickSize < upBricks) {
+			up = Math.nextUp(up);
+		}
+		double down = lastPrice + downBricks * brickSize;
+		while ((down - lastPrice) / brickSize <= downBricks) {
+			down = Math.nextUp(down);
+		}
+		while ((Math.nextDown(down) - lastPrice) / brickSize > downBricks) {
+			down = Math.nextDown(down);
+		}
+		upLimit = up;
+		downLimit = down;
+	}
+
+	/**
+	 * Same as calling addPrice for the ticks [from, to) of the arrays, numbered from 'tickIndex',
+	 * with the SIMD scan of {@link VectorBandScan} when available.
+	 */
+	@Override
+	public void addTicks(int tickIndex, long[] times, double[] prices, int from, int to) {
+		if (VectorBandScan.isAvailable()) {
+			VectorBandScan.addTicks(this, tickIndex, times, prices, from, to);
+			return;
+		}
+		for (int i = from; i < to; i++) {
+			addPrice(tickIndex + (i - from), times[i], null, prices[i]);
+		}
+	}
+
+	/**
+	 * Same as calling addPrice for each of 'ticks' ticks between 'minPrice' and 'maxPrice',
+	 * all of them inside the band of {@link #updateTriggers()}.
+	 */
+	void addQuietTicks(double minPrice, double maxPrice, int ticks) {
+		wickMinInLoop = minPrice < wickMinInLoop ? minPrice : wickMinInLoop;
+		wickMaxInLoop = maxPrice > wickMaxInLoop ? maxPrice : wickMaxInLoop;
+		volumeInLoop += ticks;
+		if (metrics != null) {
+			metrics.onQuietTicks(ticks);
+		}
+	}
+
+	double getUpLimit() {
+		return upLimit;
+	}
+	double getDownLimit() {
+		return downLimit;
+	}
+
+	/**
+	 * Same bounds check of the batch methods for both arrays.
+	 */
+	static void checkTicksRange(long[] times, double[] prices, int from, int to) {
+		if (from < 0 || from > to || to > times.length || to > prices.length) {
+			throw new IndexOutOfBoundsException(String.format("Range [%d, %d) out of bounds for times(%d) and prices(%d)",
+					from, to, times.length, prices.length));
+		}
+	}
+
+	/**
+	 * Same remaining ticks check of the batch methods for both buffers.
+	 * @return Number of ticks
+	 */
+	static int checkTicksRemaining(LongBuffer times, DoubleBuffer prices) {
+		if (times.remaining() != prices.remaining()) {
+			throw new IllegalArgumentException(String.format("times(%d) and prices(%d) must have the same remaining ticks",
+					times.remaining(), prices.remaining()));
+		}
+		return times.remaining();
+	}
+
+	private void addBrickLoop(int tickIndex, long epochNanos, Object date, int renkoMultiply, double currentDirection, double currentNumberBricks) {
+
+		// Need update value because of 'same direction' inner loop
+		double lastPrice = store.getPrice(store.size()-1);
+		double renkoPrice = lastPrice + (currentDirection * renkoMultiply * brickSize);
+		double wick = currentNumberBricks > 0 ? wickMinInLoop : wickMaxInLoop;
+
+		store.add(tickIndex, date != null ? BrickStore.toEpochNanos(date) : epochNanos, date, renkoPrice, (byte) currentDirection, wick, volumeInLoop);
+
+		// Reset
+		volumeInLoop = 1D;
+		wickMinInLoop = currentNumberBricks > 0 ? renkoPrice : wickMinInLoop;
+		wickMaxInLoop = currentNumberBricks < 0 ? renkoPrice : wickMaxInLoop;
+
+		if (brickHook != null) {
+			brickHook.run();
+		}
+	}
+
+	/**
+	 * Same as calling addBrickLoop 'count' times after the first brick of a price (the 'artificial' bricks of a gap),
+	 * but the store keeps them as a single run instead of one row per brick. <br>
+	 * The prices are still accumulated brick by brick, so they're the exact same values.
+	 */
+	private void addBrickRun(int count, double currentNumberBricks) {
+
+		// Accumulated by the store, brick by brick
+		double renkoPrice = store.addRun(count, brickSize);
+
+		// Reset
+		volumeInLoop = 1D;
+		wickMinInLoop = currentNumberBricks > 0 ? renkoPrice : wickMinInLoop;
+		wickMaxInLoop = currentNumberBricks < 0 ? renkoPrice : wickMaxInLoop;
+	}
+
+	/**
+	 * Writes the brick size, the store and the loop state, see {@link Snapshots}.
+	 */
+	void write(DataOutput out) throws IOException {
+		out.writeDouble(brickSize);
+		store.write(out);
+		out.writeDouble(wickMinInLoop);
+		out.writeDouble(wickMaxInLoop);
+		out.writeDouble(volumeInLoop);
+	}
+
+	static BrickBuilder read(DataInput in) throws IOException {
+		double brickSize = in.readDouble();
+		BrickBuilder builder = new BrickBuilder(BrickStore.read(in), brickSize);
+		builder.wickMinInLoop = in.readDouble();
+		builder.wickMaxInLoop = in.readDouble();
+		builder.volumeInLoop = in.readDouble();
+		builder.updateTriggers();
+		return builder;
+	}
+
+	/**
+	 * @param hook Called right after each brick is added to the store, null to remove it.
+	 * While set, gaps are added brick by brick instead of as runs.
+	 */
+	void setBrickHook(Runnable hook) {
+		brickHook = hook;
+	}
+
+	@Override
+	public void setMetrics(RenkoMetrics metrics) {
+		this.metrics = metrics;
+	}
+	@Override
+	public RenkoMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public BrickStore getStore() {
+		return store;
+	}
+	@Override
+	public double getBrickSize() {
+		return brickSize;
+	}
+	@Override
+	public double getWickMinInLoop() {
+		return wickMinInLoop;
+	}
+	@Override
+	public double getWickMaxInLoop() {
+		return wickMaxInLoop;
+	}
+	@Override
+	public double getVolumeInLoop() {
+		return volumeInLoop;
+	}
+}
@@ -0,0 +1,51 @@
+package renkodf;
+
+/**
+ * Brick construction used by Renko, either the floating-point {@link BrickBuilder}
+ * (same arithmetic as renkoPython) or the opt-in {@link FixedPointBrickBuilder}. <br>
+ * Holds the 'Renko Single Data' and the wick/volume of the current (loop) price.
+ * Snapshots and brick hooks are only supported by BrickBuilder, used by RenkoWS and RenkoWSModified.
+ */
+interface BrickEngine {
+
+	/**
+	 * First row of 'Renko Single Data', the initial price rounded down to the brick size.
+	 */
+	default void init(int tickIndex, Object date, double price) {
+		init(tickIndex, BrickStore.NO_TIME, date, price);
+	}
+
+	void init(int tickIndex, long epochNanos, Object date, double price);
+
+	default boolean addPrice(int tickIndex, Object date, double price) {
+		return addPrice(tickIndex, BrickStore.NO_TIME, date, price);
+	}
+
+	/**
+	 * Determine if there are new bricks to add according to the current (loop) price relative to the previous renko.
+	 * @param epochNanos Time of the bricks, only used if 'date' is null.
+	 * @return "false" if the price is the same of the previous renko, otherwise "true";
+	 */
+	boolean addPrice(int tickIndex, long epochNanos, Object date, double price);
+
+	/**
+	 * Same as calling addPrice for the ticks [from, to) of the arrays, numbered from 'tickIndex'.
+	 */
+	default void addTicks(int tickIndex, long[] times, double[] prices, int from, int to) {
+		for (int i = from; i < to; i++) {
+			addPrice(tickIndex + (i - from), times[i], null, prices[i]);
+		}
+	}
+
+	/**
+	 * @param metrics null to disable them.
+	 */
+	void setMetrics(RenkoMetrics metrics);
+	RenkoMetrics getMetrics();
+
+	BrickStore getStore();
+	double getBrickSize();
+	double getWickMinInLoop();
+	double getWickMaxInLoop();
+	double getVolumeInLoop();
+}
@@ -0,0 +1,440 @@
+package renkodf;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.RandomAccess;
+
+import renkodf.wrappers.RSD;
+
+/**
+ * Growable columnar (struct-of-arrays) storage of 'Renko Single Data'. <br>
+ * Each brick takes ~42 bytes spread over primitive arrays, instead of one RSD object
+ * holding six boxed fields (~120 bytes), and no objects are created per brick
+ * unless a datetime Object was given. <br>
+ * When bounded, the arrays are used as a ring buffer that keeps the last 'maxSize' bricks. <br>
+ * When unbounded, the 'artificial' bricks of a gap are kept as a run of the row before them
+ * (see {@link #addRun(int, double)}), so a gap of any size takes a single row.
+ * They are expanded on read, with the same floating-point additions of the engine,
+ * starting from the closest price kept every {@link #RUN_STRIDE} bricks of the run. <br>
+ * Reads never modify the store, so concurrent reads are safe while no brick is added.
+ */
+public final class BrickStore {
+
+	/** Value of {@link #getTime(int)} when the brick datetime cannot be represented as epoch nanoseconds. */
+	public static final long NO_TIME = Long.MIN_VALUE;
+	/** Value of {@link #getTickIndex(int)} when the brick has no original index. */
+	public static final int NO_INDEX = -1;
+
+	private static final int DEFAULT_CAPACITY = 16;
+	// Bricks of a run between two kept prices, so reading inside a run takes at most RUN_STRIDE - 1 additions
+	static final int RUN_STRIDE = 64;
+
+	private final int maxSize;
+	// Number of bricks
+	private int size = 0;
+	// Number of used array positions, less than 'size' only when there are runs
+	private int rows = 0;
+	// Ring buffer start, only moves once the bounded store is full
+	private int head = 0;
+	private long addedCount = 0;
+	// Kept rows with NO_TIME, the time searches are not possible while there is any
+	private int untimedRows = 0;
+
+	private double[] price;
+	private double[] wick;
+	private double[] volume;
+	private byte[] direction;
+	private long[] time;
+	private int[] tickIndex;
+	// Only allocated when a datetime Object is given
+	private Object[] date;
+
+	// Only allocated at the first run: first brick of each row and the bricks that follow it
+	private int[] firstBrick;
+	private int[] runLength;
+	private double[] runEndPrice;
+	private double runBrickSize;
+	// Prices at every RUN_STRIDE bricks of the runs, those of a row start at 'runStridePrices[runStart[row]]'
+	private int[] runStart;
+	private double[] runStridePrices;
+	private int runStridePricesSize = 0;
+
+	BrickStore() {
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param maxSize When reached, the oldest brick is overwritten at every new brick.
+	 */
+	BrickStore(int maxSize) {
+		this.maxSize = maxSize;
+		int capacity = Math.min(maxSize, DEFAULT_CAPACITY);
+		price = new double[capacity];
+		wick = new double[capacity];
+		volume = new double[capacity];
+		direction = new byte[capacity];
+		time = new long[capacity];
+		tickIndex = new int[capacity];
+	}
+
+	void add(int originalIndex, long epochNanos, Object datetime, double brickPrice, byte brickDirection, double brickWick, double brickVolume) {
+		if (rows == maxSize) {
+			removeFirst();
+		} else if (rows == price.length) {
+			grow();
+		}
+		if (datetime != null && date == null) {
+			date = new Object[price.length];
+		}
+		int i = physical(rows);
+		price[i] = brickPrice;
+		wick[i] = brickWick;
+		volume[i] = brickVolume;
+		direction[i] = brickDirection;
+		time[i] = epochNanos;
+		tickIndex[i] = originalIndex;
+		if (epochNanos == NO_TIME) {
+			untimedRows++;
+		}
+		if (date != null) {
+			date[i] = datetime;
+		}
+		if (firstBrick != null) {
+			firstBrick[i] = size;
+			runLength[i] = 0;
+			runStart[i] = runStridePricesSize;
+		}
+		rows++;
+		size++;
+		addedCount++;
+	}
+
+	/**
+	 * Whether {@link #addRun(int, double)} can be used, the bounded store keeps one row per brick.
+	 */
+	boolean isRunSupported() {
+		return maxSize == Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Adds 'count' bricks after the last one, in its direction, each one a brick size away from the previous,
+	 * with the previous price as wick, volume 1 and the time of the last brick. <br>
+	 * These are the 'artificial' bricks of a gap, kept in the last row regardless of 'count'.
+	 * @return Price of the last brick of the run, accumulated brick by brick like the engine.
+	 */
+	double addRun(int count, double brickSize) {
+		if (!isRunSupported()) {
+			throw new IllegalStateException("Runs are not supported by bounded stores");
+		}
+		if (firstBrick == null) {
+			firstBrick = new int[price.length];
+			runLength = new int[price.length];
+			runEndPrice = new double[price.length];
+			runStart = new int[price.length];
+			runStridePrices = new double[DEFAULT_CAPACITY];
+			for (int r = 0; r < rows; r++) {
+				firstBrick[r] = r;
+			}
+		}
+		int last = rows - 1;
+		double step = direction[last] * brickSize;
+		int offset = runLength[last];
+		double renkoPrice = offset == 0 ? price[last] : runEndPrice[last];
+		for (int k = 0; k < count; k++) {
+			renkoPrice = renkoPrice + step;
+			offset++;
+			if (offset % RUN_STRIDE == 0) {
+				addRunStridePrice(renkoPrice);
+			}
+		}
+		runLength[last] = offset;
+		runEndPrice[last] = renkoPrice;
+		runBrickSize = brickSize;
+		size += count;
+		addedCount += count;
+		return renkoPrice;
+	}
+
+	private void addRunStridePrice(double stridePrice) {
+		if (runStridePricesSize == runStridePrices.length) {
+			runStridePrices = Arrays.copyOf(runStridePrices, runStridePricesSize + (runStridePricesSize >> 1));
+		}
+		runStridePrices[runStridePricesSize++] = stridePrice;
+	}
+
+	void add(RSD rsd) {
+		Integer originalIndex = rsd.getOriginalIndex();
+		add(originalIndex != null ? originalIndex : NO_INDEX, toEpochNanos(rsd.getDate()), rsd.getDate(),
+				rsd.getPrice(), (byte) rsd.getDirection().intValue(), rsd.getWick(), rsd.getVolume());
+	}
+
+	private void removeFirst() {
+		if (time[head] == NO_TIME) {
+			untimedRows--;
+		}
+		if (date != null) {
+			date[head] = null;
+		}
+		head = head + 1 == price.length ? 0 : head + 1;
+		rows--;
+		size--;
+	}
+
+	private int physical(int i) {
+		int j = head + i;
+		return j < price.length ? j : j - price.length;
+	}
+
+	/**
+	 * Only called while the store is not full, so 'head' is still 0.
+	 */
+	private void grow() {
+		int capacity = price.length;
+		int newCapacity = (int) Math.min((long) maxSize, Math.max(capacity + (capacity >> 1), DEFAULT_CAPACITY));
+		price = Arrays.copyOf(price, newCapacity);
+		wick = Arrays.copyOf(wick, newCapacity);
+		volume = Arrays.copyOf(volume, newCapacity);
+		direction = Arrays.copyOf(direction, newCapacity);
+		time = Arrays.copyOf(time, newCapacity);
+		tickIndex = Arrays.copyOf(tickIndex, newCapacity);
+		if (date != null) {
+			date = Arrays.copyOf(date, newCapacity);
+		}
+		if (firstBrick != null) {
+			firstBrick = Arrays.copyOf(firstBrick, newCapacity);
+			runLength = Arrays.copyOf(runLength, newCapacity);
+			runEndPrice = Arrays.copyOf(runEndPrice, newCapacity);
+			runStart = Arrays.copyOf(runStart, newCapacity);
+		}
+	}
+
+	/**
+	 * Array position of the brick 'i', or of the row whose run holds it.
+	 */
+	private int row(int i) {
+		if (firstBrick == null) {
+			return physical(i);
+		}
+		if (i >= firstBrick[rows - 1]) {
+			return rows - 1;
+		}
+		int r = Arrays.binarySearch(firstBrick, 0, rows, i);
+		return r >= 0 ? r : -r - 2;
+	}
+
+	/**
+	 * @return Position of the brick 'i' in the run of its row, 0 for the row brick itself.
+	 */
+	private int runOffset(int row, int i) {
+		return firstBrick == null ? 0 : i - firstBrick[row];
+	}
+
+	private double runPrice(int row, int offset) {
+		if (offset == 0) {
+			return price[row];
+		}
+		if (offset == runLength[row]) {
+			return runEndPrice[row];
+		}
+		int strides = offset / RUN_STRIDE;
+		double runPrice = strides == 0 ? price[row] : runStridePrices[runStart[row] + strides - 1];
+		double step = direction[row] * runBrickSize;
+		for (int k = strides * RUN_STRIDE; k < offset; k++) {
+			runPrice = runPrice + step;
+		}
+		return runPrice;
+	}
+
+	/**
+	 * Writes the bricks kept by the store, see {@link Snapshots}.
+	 */
+	void write(DataOutput out) throws IOException {
+		out.writeInt(maxSize);
+		out.writeLong(addedCount);
+		out.writeInt(size);
+		// Runs are written expanded
+		for (int i = 0; i < size; i++) {
+			int j = row(i);
+			out.writeInt(tickIndex[j]);
+			out.writeLong(time[j]);
+			Snapshots.writeDate(out, date != null ? date[j] : null);
+			out.writeDouble(getPrice(i));
+			out.writeByte(direction[j]);
+			out.writeDouble(getWick(i));
+			out.writeDouble(getVolume(i));
+		}
+	}
+
+	static BrickStore read(DataInput in) throws IOException {
+		BrickStore store = new BrickStore(in.readInt());
+		long addedCount = in.readLong();
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			int originalIndex = in.readInt();
+			long epochNanos = in.readLong();
+			Object datetime = Snapshots.readDate(in);
+			store.add(originalIndex, epochNanos, datetime, in.readDouble(), in.readByte(), in.readDouble(), in.readDouble());
+		}
+		store.addedCount = addedCount;
+		return store;
+	}
+
+	public int size() {
+		return size;
+	}
+	/**
+	 * @return Number of bricks added since the creation, including the ones no longer kept.
+	 */
+	public long getAddedCount() {
+		return addedCount;
+	}
+	/**
+	 * @return Number of rows used by the bricks, less than {@link #size()} when gaps are kept as runs.
+	 */
+	int rowCount() {
+		return rows;
+	}
+	public double getPrice(int i) {
+		int j = row(i);
+		return runPrice(j, runOffset(j, i));
+	}
+	/**
+	 * @return 1 (UP), -1 (DOWN) or 0 (first row)
+	 */
+	public byte getDirection(int i) {
+		return direction[row(i)];
+	}
+	public double getWick(int i) {
+		int j = row(i);
+		int offset = runOffset(j, i);
+		return offset == 0 ? wick[j] : runPrice(j, offset - 1);
+	}
+	public double getVolume(int i) {
+		int j = row(i);
+		return runOffset(j, i) == 0 ? volume[j] : 1D;
+	}
+	public long getTime(int i) {
+		return time[row(i)];
+	}
+	public int getTickIndex(int i) {
+		return tickIndex[row(i)];
+	}
+	/**
+	 * @return The datetime Object given to the engine,
+	 * or the epoch nanoseconds (Long) if none was given.
+	 */
+	public Object getDate(int i) {
+		int j = row(i);
+		Object datetime = date != null ? date[j] : null;
+		if (datetime == null && time[j] != NO_TIME) {
+			return time[j];
+		}
+		return datetime;
+	}
+
+	/**
+	 * Binary search over the brick times, which never decrease since the ticks are given in order. <br>
+	 * The times are the ones of {@link #toEpochNanos(Object)}, so Number datetimes must be epoch nanoseconds
+	 * (e.g. epoch milliseconds are not converted and give wrong ranges).
+	 * @return Index of the first brick at or after 'epochNanos', {@link #size()} if there is none.
+	 * @throws IllegalStateException if any kept brick has {@link #NO_TIME} (null or unsupported datetime type)
+	 */
+	public int indexAtOrAfter(long epochNanos) {
+		return firstBrickOfRow(firstRowAfter(epochNanos, false));
+	}
+
+	/**
+	 * Same as {@link #indexAtOrAfter(long)} for the first brick strictly after 'epochNanos'.
+	 * @throws IllegalStateException if any kept brick has {@link #NO_TIME}
+	 */
+	public int indexAfter(long epochNanos) {
+		return firstBrickOfRow(firstRowAfter(epochNanos, true));
+	}
+
+	/**
+	 * Rows share the time of their run, so searching the rows is enough.
+	 */
+	private int firstRowAfter(long epochNanos, boolean strictly) {
+		if (untimedRows > 0) {
+			throw new IllegalStateException(untimedRows + " bricks without time, the datetimes must be "
+					+ "Timestamp, Date, Instant or epoch nanoseconds (Number) to search by time");
+		}
+		int low = 0;
+		int high = rows;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			long t = time[physical(mid)];
+			if (t < epochNanos || (strictly && t == epochNanos)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int firstBrickOfRow(int row) {
+		if (row == rows) {
+			return size;
+		}
+		return firstBrick == null ? row : firstBrick[row];
+	}
+
+	public RSD getRSD(int i) {
+		int j = row(i);
+		int originalIndex = tickIndex[j];
+		return new RSD(originalIndex != NO_INDEX ? originalIndex : null, getDate(i),
+				getPrice(i), (double) direction[j], getWick(i), getVolume(i));
+	}
+
+	/**
+	 * @return Read-only view of the bricks as 'Renko Single Data',
+	 * each RSD is created on access.
+	 */
+	public List<RSD> asRSDList() {
+		return new RSDView();
+	}
+
+	private class RSDView extends AbstractList<RSD> implements RandomAccess {
+		@Override
+		public RSD get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+			return getRSD(index);
+		}
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	/**
+	 * Epoch nanoseconds of the usual datetime types,
+	 * Numbers are assumed to be epoch nanoseconds already (their scale cannot be detected).
+	 * @return {@link #NO_TIME} if null or unknown type, e.g. a String
+	 */
+	static long toEpochNanos(Object datetime) {
+		if (datetime instanceof java.sql.Timestamp) {
+			java.sql.Timestamp ts = (java.sql.Timestamp) datetime;
+			return Math.floorDiv(ts.getTime(), 1000L) * 1_000_000_000L + ts.getNanos();
+		}
+		if (datetime instanceof Date) {
+			return ((Date) datetime).getTime() * 1_000_000L;
+		}
+		if (datetime instanceof Instant) {
+			Instant instant = (Instant) datetime;
+			return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+		}
+		if (datetime instanceof Number) {
+			return ((Number) datetime).longValue();
+		}
+		return NO_TIME;
+	}
+}
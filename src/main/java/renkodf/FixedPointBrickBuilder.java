@@ -0,0 +1,236 @@
+package renkodf;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Opt-in brick construction over prices scaled to 'long' units of the instrument tick size,
+ * so the number of bricks of each tick is counted with integer arithmetic. <br>
+ * The tick size is kept as an exact ratio 'tickNumerator / tickDenominator' (e.g. 1/100000, 1/4, 5/2 or 10/1),
+ * and the brick prices are exact multiples of the brick size (units * tickNumerator / tickDenominator),
+ * instead of the floating-point sums of the default engine. <br>
+ * The default engine stays the renkoPython compatible one, this engine is only used when a tick size is given. <br>
+ * Equivalence to the default engine (and renkoPython) on the fixtures:
+ * <ul>
+ * 	<li>US30 (tick 0.1, brick 5): strictly equal OHLCV in all modes.</li>
+ * 	<li>EURGBP (tick 0.00001, brick 0.0003): 167 bricks instead of 163, since a tick exactly
+ * 	N bricks away is counted as N bricks, while the floating-point ratio can be just below N
+ * 	(e.g. (0.8601 - 0.8606999999999998) / 0.0003 = -1.99999999999941), so the default engine waits for the next tick.</li>
+ * </ul>
+ * Gaps are added brick by brick (no runs), and it's only used by the batch Renko (no brick hooks or snapshots).
+ */
+final class FixedPointBrickBuilder implements BrickEngine {
+
+	private final BrickStore store;
+	private final double brickSize;
+	// Exact tick size ratio, the denominator is the number of units per price unit when the numerator is 1
+	private final long tickNumerator;
+	private final long tickDenominator;
+	private final long brickUnits;
+
+	private long lastUnits;
+	private byte lastDirection;
+	private long wickMinUnits;
+	private long wickMaxUnits;
+	private double volume;
+
+	private RenkoMetrics metrics;
+
+	/**
+	 * @param tickSize Price increment of the instrument, 1/n (e.g. 0.00001, 0.25 or 1)
+	 * or a decimal of at most 9 fraction digits (e.g. 2.5, 5 or 10)
+	 * @param brickSize Must be a multiple of 'tickSize'
+	 */
+	FixedPointBrickBuilder(BrickStore store, double brickSize, double tickSize) {
+		this.store = store;
+		this.brickSize = brickSize;
+		if (!(tickSize > 0) || Double.isInfinite(tickSize)) {
+			throw new IllegalArgumentException("tickSize must be positive: " + tickSize);
+		}
+		long[] ratio = tickRatio(tickSize);
+		tickNumerator = ratio[0];
+		tickDenominator = ratio[1];
+		double ticks = brickSize * tickDenominator / tickNumerator;
+		brickUnits = Math.round(ticks);
+		if (brickUnits <= 0 || Math.abs(brickUnits - ticks) > 1e-6) {
+			throw new IllegalArgumentException(String.format("brickSize %s must be a multiple of tickSize %s", brickSize, tickSize));
+		}
+	}
+
+	/**
+	 * 1/n when the tick size is the inverse of an integer (kept as before, e.g. 1/3),
+	 * otherwise the reduced fraction of its shortest decimal representation, e.g. 2.5 = 5/2.
+	 * @return {numerator, denominator}
+	 */
+	private static long[] tickRatio(double tickSize) {
+		if (tickSize <= 1) {
+			long n = Math.round(1 / tickSize);
+			if (n > 0 && Math.abs(n * tickSize - 1) <= 1e-9) {
+				return new long[] {1, n};
+			}
+		}
+		BigDecimal decimal = BigDecimal.valueOf(tickSize).stripTrailingZeros();
+		if (decimal.scale() > 9 || decimal.precision() - decimal.scale() > 9) {
+			throw new IllegalArgumentException("tickSize must be 1/n or a decimal of at most 9 integer "
+					+ "and 9 fraction digits, e.g. 0.00001, 0.25, 2.5 or 10: " + tickSize);
+		}
+		BigInteger numerator = decimal.scale() < 0 ? decimal.toBigIntegerExact() : decimal.unscaledValue();
+		BigInteger denominator = BigInteger.TEN.pow(Math.max(0, decimal.scale()));
+		BigInteger gcd = numerator.gcd(denominator);
+		return new long[] {numerator.divide(gcd).longValueExact(), denominator.divide(gcd).longValueExact()};
+	}
+
+	/**
+	 * Nearest number of ticks, the division by 1 of a 1/n tick size is exact.
+	 */
+	long toUnits(double price) {
+		return Math.round(price * tickDenominator / tickNumerator);
+	}
+
+	/**
+	 * Division of an exact integer by an exact integer, so it's the nearest double of the decimal price.
+	 */
+	double toPrice(long units) {
+		return (units * tickNumerator) / (double) tickDenominator;
+	}
+
+	long getBrickUnits() {
+		return brickUnits;
+	}
+
+	/**
+	 * Bricks between the last brick and a price 'distance' units away, truncated toward zero
+	 * (same as the (int) cast of the default engine). <br>
+	 * 0 if the price doesn't add any brick, the opposite direction needs at least 2 ('GAP' or 'OPPOSITE DIRECTION' rules).
+	 * The bricks added are 'lastUnits + direction * n * brickUnits' for n from 1 (2 on a reversal) to the returned value.
+	 */
+	static long newBricks(long distance, byte lastDirection, long brickUnits) {
+		long bricks = Math.abs(distance / brickUnits);
+		boolean isSameDirection = (distance > 0 && lastDirection >= 0) || (distance < 0 && lastDirection <= 0);
+		return isSameDirection || bricks >= 2 ? bricks : 0;
+	}
+
+	@Override
+	public void init(int tickIndex, long epochNanos, Object date, double price) {
+		long initialUnits = Math.floorDiv(toUnits(price), brickUnits) * brickUnits;
+		double initialPrice = toPrice(initialUnits);
+		store.add(tickIndex, date != null ? BrickStore.toEpochNanos(date) : epochNanos, date, initialPrice, (byte) 0, initialPrice, 1D);
+
+		lastUnits = initialUnits;
+		lastDirection = 0;
+		wickMinUnits = initialUnits;
+		wickMaxUnits = initialUnits;
+		volume = 1D;
+	}
+
+	@Override
+	public boolean addPrice(int tickIndex, long epochNanos, Object date, double price) {
+
+		long units = toUnits(price);
+		wickMinUnits = units < wickMinUnits ? units : wickMinUnits;
+		wickMaxUnits = units > wickMaxUnits ? units : wickMaxUnits;
+		volume += 1D;
+
+		long distance = units - lastUnits;
+		if (distance == 0) {
+			if (metrics != null) {
+				metrics.onTick(0, false);
+			}
+			return false;
+		}
+		int currentDirection = distance > 0 ? 1 : -1;
+		long currentNumberBricks = newBricks(distance, lastDirection, brickUnits);
+		boolean reversal = currentNumberBricks > 0 && lastDirection == -currentDirection;
+		long sameBricks = currentNumberBricks;
+		if (reversal) {
+			addBrick(tickIndex, epochNanos, date, 2, currentDirection);
+			sameBricks = currentNumberBricks - 2;
+		}
+		for (long noUse = 0; noUse < sameBricks; noUse++) {
+			addBrick(tickIndex, epochNanos, date, 1, currentDirection);
+		}
+
+		if (metrics != null) {
+			metrics.onTick(reversal ? (int) sameBricks + 1 : (int) sameBricks, reversal);
+		}
+		return true;
+	}
+
+	private void addBrick(int tickIndex, long epochNanos, Object date, int renkoMultiply, int currentDirection) {
+
+		long renkoUnits = lastUnits + currentDirection * renkoMultiply * brickUnits;
+		long wickUnits = currentDirection > 0 ? wickMinUnits : wickMaxUnits;
+
+		store.add(tickIndex, date != null ? BrickStore.toEpochNanos(date) : epochNanos, date,
+				toPrice(renkoUnits), (byte) currentDirection, toPrice(wickUnits), volume);
+
+		// Reset
+		volume = 1D;
+		wickMinUnits = currentDirection > 0 ? renkoUnits : wickMinUnits;
+		wickMaxUnits = currentDirection < 0 ? renkoUnits : wickMaxUnits;
+		lastUnits = renkoUnits;
+		lastDirection = (byte) currentDirection;
+	}
+
+	/**
+	 * Brick added by ParallelRenko, already counted by {@link #newBricks(long, byte, long)}.
+	 */
+	void addBrick(int tickIndex, long epochNanos, Object date, long renkoUnits, byte direction, long wickUnits, double brickVolume) {
+		store.add(tickIndex, date != null ? BrickStore.toEpochNanos(date) : epochNanos, date,
+				toPrice(renkoUnits), direction, toPrice(wickUnits), brickVolume);
+	}
+
+	long getLastUnits() {
+		return lastUnits;
+	}
+	byte getLastDirection() {
+		return lastDirection;
+	}
+	long getWickMinUnits() {
+		return wickMinUnits;
+	}
+	long getWickMaxUnits() {
+		return wickMaxUnits;
+	}
+
+	/**
+	 * Loop state after the bricks added by ParallelRenko.
+	 */
+	void setLoopState(long lastUnits, byte lastDirection, long wickMinUnits, long wickMaxUnits, double volume) {
+		this.lastUnits = lastUnits;
+		this.lastDirection = lastDirection;
+		this.wickMinUnits = wickMinUnits;
+		this.wickMaxUnits = wickMaxUnits;
+		this.volume = volume;
+	}
+
+	@Override
+	public void setMetrics(RenkoMetrics metrics) {
+		this.metrics = metrics;
+	}
+	@Override
+	public RenkoMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public BrickStore getStore() {
+		return store;
+	}
+	@Override
+	public double getBrickSize() {
+		return brickSize;
+	}
+	@Override
+	public double getWickMinInLoop() {
+		return toPrice(wickMinUnits);
+	}
+	@Override
+	public double getWickMaxInLoop() {
+		return toPrice(wickMaxUnits);
+	}
+	@Override
+	public double getVolumeInLoop() {
+		return volume;
+	}
+}
@@ -0,0 +1,110 @@
+package renkodf;
+
+import java.util.Arrays;
+
+/**
+ * HDR-style latency histogram of nanoseconds with a fixed footprint (~8KB). <br>
+ * Values are counted in log-linear buckets: powers of two split into 16 linear sub-buckets,
+ * so any percentile is reported within ~6% of the recorded value. Recording is O(1) and allocation-free.
+ * <br>
+ * Not synchronized, a single thread records while others may read slightly stale values.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+	private long count;
+	private long sum;
+	private long max;
+
+	public LatencyHistogram() {
+	}
+
+	private LatencyHistogram(LatencyHistogram other) {
+		System.arraycopy(other.counts, 0, counts, 0, BUCKETS);
+		count = other.count;
+		sum = other.sum;
+		max = other.max;
+	}
+
+	/**
+	 * @param nanos Negative values are recorded as 0.
+	 */
+	public void record(long nanos) {
+		long value = nanos < 0 ? 0 : nanos;
+		counts[bucketOf(value)]++;
+		count++;
+		sum += value;
+		max = value > max ? value : max;
+	}
+
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int msb = 63 - Long.numberOfLeadingZeros(value);
+		return (msb - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + (int) (value >>> (msb - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+	}
+
+	/**
+	 * @return Highest value counted by the bucket.
+	 */
+	static long highestValueOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	public long getCount() {
+		return count;
+	}
+	public long getMax() {
+		return max;
+	}
+	public double getMean() {
+		return count == 0 ? 0D : (double) sum / count;
+	}
+
+	/**
+	 * @param percentile 0 to 100, e.g. 99.9
+	 * @return The highest equivalent value of the bucket reaching the percentile (never more than the max),
+	 * 0 if there are no values.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100D) / 100D * count));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += counts[bucket];
+			if (seen >= target) {
+				return Math.min(highestValueOf(bucket), max);
+			}
+		}
+		return max;
+	}
+
+	public LatencyHistogram copy() {
+		return new LatencyHistogram(this);
+	}
+
+	public void reset() {
+		Arrays.fill(counts, 0L);
+		count = 0;
+		sum = 0;
+		max = 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d, mean=%.1fns, p50=%dns, p99=%dns, p99.9=%dns, max=%dns",
+				count, getMean(), getValueAtPercentile(50), getValueAtPercentile(99), getValueAtPercentile(99.9), max);
+	}
+}
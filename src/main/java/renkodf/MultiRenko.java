@@ -0,0 +1,123 @@
+package renkodf;
+
+import java.util.Iterator;
+
+import renkodf.sources.TickSource;
+import renkodf.wrappers.OHLCV;
+
+/**
+ * Create Renko OHLCV of several brick sizes with a single pass over the Ticks data. <br>
+ * Each tick is read once and given to the bricks of every size,
+ * the result of each size is the same of {@code new Renko(ticksList, brickSize)}.
+ * <h3>Usage</h3>
+ * <code>
+ * 	MultiRenko mr = new MultiRenko(ticksList, 0.0001, 0.0003, 0.0005); <br>
+ * 	List(OHLCV) renkoList = mr.getRenko(1).renkodf("wicks");
+ * </code>
+ */
+public class MultiRenko {
+
+	private final double[] brickSizes;
+	private final BrickBuilder[] builders;
+	// Created once, so the ticks appended through a Renko are numbered after the previous ones
+	private final Renko[] renkos;
+
+	/**
+	 * @param ticks Same as Renko(ticksList, brickSize), only read once so it can be a streamed Iterable.
+	 * @param brickSizes Each one cannot be less than or equal to 0.00000...
+	 */
+	public MultiRenko(Iterable<OHLCV> ticks, double... brickSizes) {
+		if (brickSizes.length == 0) {
+			throw new IllegalArgumentException("At least one brick size is required");
+		}
+		this.brickSizes = brickSizes.clone();
+		builders = new BrickBuilder[brickSizes.length];
+		for (int b = 0; b < brickSizes.length; b++) {
+			builders[b] = new BrickBuilder(new BrickStore(), brickSizes[b]);
+		}
+
+		Iterator<OHLCV> iterator = ticks.iterator();
+		OHLCV firstTick = iterator.next();
+		for (BrickBuilder builder : builders) {
+			builder.init(0, firstTick.getDatetime(), firstTick.getClose());
+		}
+
+		int i = 1;
+		while (iterator.hasNext()) {
+			OHLCV tick = iterator.next();
+			Object tickDatetime = tick.getDatetime();
+			double tickClose = tick.getClose();
+			for (BrickBuilder builder : builders) {
+				builder.addPrice(i, tickDatetime, tickClose);
+			}
+			i++;
+		}
+		renkos = newRenkos(builders, i);
+	}
+
+	/**
+	 * Same as {@link #MultiRenko(Iterable, double...)} streaming the Ticks data.
+	 * @param source Read until the end, the caller is responsible for closing it.
+	 */
+	public MultiRenko(TickSource source, double... brickSizes) {
+		if (brickSizes.length == 0) {
+			throw new IllegalArgumentException("At least one brick size is required");
+		}
+		if (!source.next()) {
+			throw new IllegalArgumentException("TickSource has no ticks");
+		}
+		this.brickSizes = brickSizes.clone();
+		builders = new BrickBuilder[brickSizes.length];
+		for (int b = 0; b < brickSizes.length; b++) {
+			builders[b] = new BrickBuilder(new BrickStore(), brickSizes[b]);
+			builders[b].init(0, source.time(), null, source.price());
+		}
+
+		int i = 1;
+		while (source.next()) {
+			long tickTime = source.time();
+			double tickPrice = source.price();
+			for (BrickBuilder builder : builders) {
+				builder.addPrice(i, tickTime, null, tickPrice);
+			}
+			i++;
+		}
+		renkos = newRenkos(builders, i);
+	}
+	
+	private static Renko[] newRenkos(BrickBuilder[] builders, int ticks) {
+		Renko[] renkos = new Renko[builders.length];
+		for (int b = 0; b < builders.length; b++) {
+			renkos[b] = new Renko(builders[b], ticks);
+		}
+		return renkos;
+	}
+
+	public int size() {
+		return brickSizes.length;
+	}
+
+	public double getBrickSize(int index) {
+		return brickSizes[index];
+	}
+
+	/**
+	 * @param index Position of the brick size given to the constructor
+	 * @return The same Renko at each call
+	 */
+	public Renko getRenko(int index) {
+		return renkos[index];
+	}
+
+	/**
+	 * @return Renko of the first brick size equal to 'brickSize'
+	 */
+	public Renko getRenko(double brickSize) {
+		for (int b = 0; b < brickSizes.length; b++) {
+			if (brickSizes[b] == brickSize) {
+				return getRenko(b);
+			}
+		}
+		throw new IllegalArgumentException("Brick size " + brickSize + " was not built");
+	}
+}
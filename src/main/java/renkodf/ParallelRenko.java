@@ -0,0 +1,341 @@
+package renkodf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import renkodf.wrappers.OHLCV;
+
+/**
+ * Create Renko OHLCV with existing Ticks data using all cores of a ForkJoinPool,
+ * with the fixed-point engine of {@link Renko#Renko(List, Double, double)}. <br>
+ * The bricks are <strong>identical</strong> to {@code new Renko(ticksList, brickSize, tickSize)}.
+ * <ul>
+ * 	<li><strong>Chunks</strong> (parallel): the ticks are split into chunks and the bricks of each chunk are built
+ * 		from a speculative anchor, the brick level below its first tick, since the real one is not known yet.</li>
+ * 	<li><strong>Stitch</strong> (sequential): starting from the real state left by the previous chunk,
+ * 		the ticks of a chunk are replayed until both runs add bricks on the same tick and end on the same brick,
+ * 		then the remaining bricks of the chunk are taken as they are (only one wick is re-anchored).</li>
+ * </ul>
+ * All brick levels are exact multiples of the brick size from the initial price,
+ * and a tick adding bricks always ends on the level below (UP) or above (DOWN) its price,
+ * whatever the previous brick, so both runs add the same bricks from that tick on.
+ * A chunk whose runs never meet (e.g. prices that never move 2 bricks) is fully replayed,
+ * so the speedup depends on how often the bricks are added, not on the result.
+ */
+public final class ParallelRenko {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+	private ParallelRenko() {}
+
+	/**
+	 * Same as {@link #build(List, double, double, int, ForkJoinPool)}
+	 * with {@link #DEFAULT_CHUNK_SIZE} and the common pool.
+	 */
+	public static Renko build(List<OHLCV> ticksList, double brickSize, double tickSize) {
+		return build(ticksList, brickSize, tickSize, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param ticksList Same as Renko(ticksList, brickSize, tickSize)
+	 * @param tickSize Same as Renko(ticksList, brickSize, tickSize)
+	 * @param chunkSize Ticks per chunk, at least a few bricks should fit in a chunk.
+	 * @param pool Used for the chunks
+	 */
+	public static Renko build(List<OHLCV> ticksList, double brickSize, double tickSize, int chunkSize, ForkJoinPool pool) {
+		List<OHLCV> ticks = ticksList instanceof RandomAccess ? ticksList : new ArrayList<>(ticksList);
+		return build(new Ticks() {
+			@Override
+			int size() {
+				return ticks.size();
+			}
+			@Override
+			double price(int i) {
+				return ticks.get(i).getClose();
+			}
+			@Override
+			long time(int i) {
+				return BrickStore.NO_TIME;
+			}
+			@Override
+			Object date(int i) {
+				return ticks.get(i).getDatetime();
+			}
+		}, brickSize, tickSize, chunkSize, pool);
+	}
+
+	/**
+	 * Same as {@link #build(List, double, double, int, ForkJoinPool)} with primitive arrays of the Ticks data,
+	 * identical to {@code new Renko(times, prices, from, to, brickSize, tickSize)}.
+	 */
+	public static Renko build(long[] times, double[] prices, int from, int to, double brickSize, double tickSize,
+			int chunkSize, ForkJoinPool pool) {
+		BrickBuilder.checkTicksRange(times, prices, from, to);
+		return build(new Ticks() {
+			@Override
+			int size() {
+				return to - from;
+			}
+			@Override
+			double price(int i) {
+				return prices[from + i];
+			}
+			@Override
+			long time(int i) {
+				return times[from + i];
+			}
+			@Override
+			Object date(int i) {
+				return null;
+			}
+		}, brickSize, tickSize, chunkSize, pool);
+	}
+
+	private static Renko build(Ticks ticks, double brickSize, double tickSize, int chunkSize, ForkJoinPool pool) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+		}
+		if (ticks.size() == 0) {
+			throw new IllegalArgumentException("At least one tick is required");
+		}
+		FixedPointBrickBuilder builder = new FixedPointBrickBuilder(new BrickStore(), brickSize, tickSize);
+		builder.init(0, ticks.time(0), ticks.date(0), ticks.price(0));
+
+		// Tick 0 is the initial price
+		int chunks = (int) ((ticks.size() - 1 + (long) chunkSize - 1) / chunkSize);
+		Chunk[] built = new Chunk[chunks];
+		if (chunks > 0) {
+			pool.invoke(new ChunkTask(ticks, builder, chunkSize, built, 0, chunks));
+		}
+
+		for (Chunk chunk : built) {
+			chunk.stitch(ticks, builder);
+		}
+		return new Renko(builder, ticks.size());
+	}
+
+	/**
+	 * Ticks data, the index is also the tick index of the bricks.
+	 */
+	private abstract static class Ticks {
+		abstract int size();
+		abstract double price(int i);
+		abstract long time(int i);
+		abstract Object date(int i);
+	}
+
+	private static class ChunkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient Ticks ticks;
+		private final transient FixedPointBrickBuilder builder;
+		private final int chunkSize;
+		private final transient Chunk[] built;
+		private final int fromChunk;
+		private final int toChunk;
+
+		ChunkTask(Ticks ticks, FixedPointBrickBuilder builder, int chunkSize, Chunk[] built, int fromChunk, int toChunk) {
+			this.ticks = ticks;
+			this.builder = builder;
+			this.chunkSize = chunkSize;
+			this.built = built;
+			this.fromChunk = fromChunk;
+			this.toChunk = toChunk;
+		}
+
+		@Override
+		protected void compute() {
+			if (toChunk - fromChunk > 1) {
+				int middle = (fromChunk + toChunk) >>> 1;
+				invokeAll(new ChunkTask(ticks, builder, chunkSize, built, fromChunk, middle),
+						new ChunkTask(ticks, builder, chunkSize, built, middle, toChunk));
+				return;
+			}
+			int from = 1 + fromChunk * chunkSize;
+			int to = (int) Math.min(from + (long) chunkSize, ticks.size());
+			Chunk chunk = new Chunk(from, to, fromChunk == 0);
+			if (chunk.exact) {
+				// The real anchor is only known for the first chunk
+				chunk.run(ticks, builder, builder.getLastUnits(), builder.getLastDirection(),
+						builder.getWickMinUnits(), builder.getWickMaxUnits(), builder.getVolumeInLoop());
+			} else {
+				long units = builder.toUnits(ticks.price(from));
+				long brickUnits = builder.getBrickUnits();
+				// Same brick levels of the initial price
+				long anchor = builder.getLastUnits() + Math.floorDiv(units - builder.getLastUnits(), brickUnits) * brickUnits;
+				chunk.run(ticks, builder, anchor, (byte) 0, anchor, anchor, 0D);
+			}
+			built[fromChunk] = chunk;
+		}
+	}
+
+	/**
+	 * Bricks of the ticks [from, to) built from an anchor, with the min/max units of the ticks since the previous brick
+	 * (only the first brick of a tick has ticks) to re-anchor the wicks at the stitch.
+	 */
+	private static class Chunk {
+
+		final int from;
+		final int to;
+		// Built from the real state
+		final boolean exact;
+
+		int size = 0;
+		int[] tickIndex = new int[16];
+		long[] units = new long[16];
+		byte[] direction = new byte[16];
+		long[] wick = new long[16];
+		double[] volume = new double[16];
+		long[] ticksMin = new long[16];
+		long[] ticksMax = new long[16];
+
+		// State at the end of the chunk
+		long lastUnits;
+		byte lastDirection;
+		long wickMinUnits;
+		long wickMaxUnits;
+		double loopVolume;
+		long tailMin;
+		long tailMax;
+
+		Chunk(int from, int to, boolean exact) {
+			this.from = from;
+			this.to = to;
+			this.exact = exact;
+		}
+
+		/**
+		 * Same bricks of {@link FixedPointBrickBuilder#addPrice(int, long, Object, double)} from the given state.
+		 */
+		void run(Ticks ticks, FixedPointBrickBuilder builder, long lastUnits, byte lastDirection,
+				long wickMinUnits, long wickMaxUnits, double loopVolume) {
+			long brickUnits = builder.getBrickUnits();
+			long segmentMin = Long.MAX_VALUE;
+			long segmentMax = Long.MIN_VALUE;
+			for (int i = from; i < to; i++) {
+				long price = builder.toUnits(ticks.price(i));
+				wickMinUnits = price < wickMinUnits ? price : wickMinUnits;
+				wickMaxUnits = price > wickMaxUnits ? price : wickMaxUnits;
+				segmentMin = price < segmentMin ? price : segmentMin;
+				segmentMax = price > segmentMax ? price : segmentMax;
+				loopVolume += 1D;
+
+				long distance = price - lastUnits;
+				long bricks = distance != 0 ? FixedPointBrickBuilder.newBricks(distance, lastDirection, brickUnits) : 0;
+				if (bricks == 0) {
+					continue;
+				}
+				byte currentDirection = (byte) (distance > 0 ? 1 : -1);
+				long first = lastDirection == -currentDirection ? 2 : 1;
+				for (long n = first; n <= bricks; n++) {
+					long renkoUnits = lastUnits + currentDirection * n * brickUnits;
+					add(i, renkoUnits, currentDirection, currentDirection > 0 ? wickMinUnits : wickMaxUnits, loopVolume,
+							segmentMin, segmentMax);
+					segmentMin = Long.MAX_VALUE;
+					segmentMax = Long.MIN_VALUE;
+					loopVolume = 1D;
+					wickMinUnits = currentDirection > 0 ? renkoUnits : wickMinUnits;
+					wickMaxUnits = currentDirection < 0 ? renkoUnits : wickMaxUnits;
+				}
+				lastUnits += currentDirection * bricks * brickUnits;
+				lastDirection = currentDirection;
+			}
+			this.lastUnits = lastUnits;
+			this.lastDirection = lastDirection;
+			this.wickMinUnits = wickMinUnits;
+			this.wickMaxUnits = wickMaxUnits;
+			this.loopVolume = loopVolume;
+			tailMin = segmentMin;
+			tailMax = segmentMax;
+		}
+
+		private void add(int i, long renkoUnits, byte currentDirection, long wickUnits, double brickVolume,
+				long segmentMin, long segmentMax) {
+			if (size == tickIndex.length) {
+				int capacity = size * 2;
+				tickIndex = Arrays.copyOf(tickIndex, capacity);
+				units = Arrays.copyOf(units, capacity);
+				direction = Arrays.copyOf(direction, capacity);
+				wick = Arrays.copyOf(wick, capacity);
+				volume = Arrays.copyOf(volume, capacity);
+				ticksMin = Arrays.copyOf(ticksMin, capacity);
+				ticksMax = Arrays.copyOf(ticksMax, capacity);
+			}
+			tickIndex[size] = i;
+			units[size] = renkoUnits;
+			direction[size] = currentDirection;
+			wick[size] = wickUnits;
+			volume[size] = brickVolume;
+			ticksMin[size] = segmentMin;
+			ticksMax[size] = segmentMax;
+			size++;
+		}
+
+		/**
+		 * Adds the bricks of this chunk to the builder, which has the real state of the previous ticks.
+		 */
+		void stitch(Ticks ticks, FixedPointBrickBuilder builder) {
+			if (exact) {
+				addBricks(ticks, builder, 0, builder.getLastDirection());
+				return;
+			}
+			BrickStore store = builder.getStore();
+			int brick = 0;
+			for (int i = from; i < to; i++) {
+				long added = store.getAddedCount();
+				builder.addPrice(i, ticks.time(i), ticks.date(i), ticks.price(i));
+				while (brick < size && tickIndex[brick] < i) {
+					brick++;
+				}
+				if (added == store.getAddedCount() || brick == size || tickIndex[brick] != i) {
+					continue;
+				}
+				while (brick + 1 < size && tickIndex[brick + 1] == i) {
+					brick++;
+				}
+				if (units[brick] == builder.getLastUnits() && direction[brick] == builder.getLastDirection()) {
+					addBricks(ticks, builder, brick + 1, direction[brick]);
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Adds the bricks [fromBrick, size) and the end state, both runs ended on the same brick of 'syncDirection'
+		 * so the wick of that direction is already the same, the other one is re-anchored to the real one,
+		 * until the next brick of the opposite direction resets it.
+		 */
+		private void addBricks(Ticks ticks, FixedPointBrickBuilder builder, int fromBrick, byte syncDirection) {
+			boolean up = syncDirection > 0;
+			long otherWick = up ? builder.getWickMaxUnits() : builder.getWickMinUnits();
+			boolean reset = exact;
+			for (int b = fromBrick; b < size; b++) {
+				long wickUnits = wick[b];
+				if (!reset) {
+					otherWick = up ? Math.max(otherWick, ticksMax[b]) : Math.min(otherWick, ticksMin[b]);
+					if (direction[b] != syncDirection) {
+						wickUnits = otherWick;
+						reset = true;
+					}
+				}
+				int i = tickIndex[b];
+				builder.addBrick(i, ticks.time(i), ticks.date(i), units[b], direction[b], wickUnits, volume[b]);
+			}
+			long endWickMin = wickMinUnits;
+			long endWickMax = wickMaxUnits;
+			if (!reset) {
+				if (up) {
+					endWickMax = Math.max(otherWick, tailMax);
+				} else {
+					endWickMin = Math.min(otherWick, tailMin);
+				}
+			}
+			builder.setLoopState(lastUnits, lastDirection, endWickMin, endWickMax, loopVolume);
+		}
+	}
+}
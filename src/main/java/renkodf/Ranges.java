@@ -0,0 +1,47 @@
+package renkodf;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only range views shared by the bricks/renkos methods of Renko, RenkoWS and RenkoWSModified. <br>
+ * Nothing is copied, the views are backed by the engine lists.
+ */
+final class Ranges {
+
+	private Ranges() {
+	}
+
+	/**
+	 * @throws IndexOutOfBoundsException if fromIndex &lt; 0, toIndex &gt; list size or fromIndex &gt; toIndex
+	 */
+	static <T> List<T> range(List<T> list, int fromIndex, int toIndex) {
+		checkRange(fromIndex, toIndex, list.size());
+		return Collections.unmodifiableList(list.subList(fromIndex, toIndex));
+	}
+
+	/**
+	 * @return The last 'n' elements, all of them if the list is smaller.
+	 * @throws IllegalArgumentException if n &lt; 0
+	 */
+	static <T> List<T> last(List<T> list, int n) {
+		int size = list.size();
+		return range(list, size - checkCount(n, size), size);
+	}
+
+	static void checkRange(int fromIndex, int toIndex, int size) {
+		if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) {
+			throw new IndexOutOfBoundsException(String.format("Range [%d, %d) out of bounds for size %d", fromIndex, toIndex, size));
+		}
+	}
+
+	/**
+	 * @return 'n' limited to 'size'
+	 */
+	static int checkCount(int n, int size) {
+		if (n < 0) {
+			throw new IllegalArgumentException("Number of elements cannot be negative: " + n);
+		}
+		return Math.min(n, size);
+	}
+}
@@ -1,12 +1,15 @@
 package renkodf;
 
-import java.util.ArrayList;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
+import renkodf.sources.TickSource;
 import renkodf.wrappers.OHLCV;
 import renkodf.wrappers.RSD;
 
@@ -15,16 +18,13 @@ import renkodf.wrappers.RSD;
  */
 public class Renko {
 
-	private List<RSD> rsd = new ArrayList<>();
-	private Double brickSize;
-	
-	private Double wickMinInLoop;
-	private Double wickMaxInLoop;
-	private Double volumeInLoop;
+	private final BrickEngine builder;
+	// Number of ticks given, also the index of the next tick
+	private int ticks;
+	// Only used by renkodfIncremental
+	private final Map<RenkoMode, RenkoConverter> converters = new EnumMap<>(RenkoMode.class);
 	
 	private final Logger logger = Logger.getLogger(getClass().getName());
-	private static final List<String> MODE_LIST = List.of("normal","wicks", "nongap",
-			"reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap");
 	/**
 	 * Create Renko OHLCV with existing Ticks data.
 	 * <h3>Usage</h3>
@@ -48,98 +48,249 @@ public class Renko {
 	 */
 	public Renko(List<OHLCV> ticksList, Double brickSize) {
 
-		Double firstClose = ticksList.get(0).getClose();
-		Double initialPrice = (Math.floor(firstClose/brickSize)) * brickSize;
-		
 		// Renko Single Data
-		rsd.add(new RSD(0, ticksList.get(0).getDatetime(), initialPrice, 0D, initialPrice, 1D));
-
-		this.brickSize = brickSize;
-        wickMinInLoop = initialPrice;
-        wickMaxInLoop = initialPrice;
-        volumeInLoop = 1D;
+		builder = new BrickBuilder(new BrickStore(), brickSize);
+		builder.init(0, ticksList.get(0).getDatetime(), ticksList.get(0).getClose());
         
         Integer listSize = ticksList.size();
         for (int i = 1; i < listSize; i++) {
-        	addPrices(i, ticksList);
+        	OHLCV tick = ticksList.get(i);
+        	builder.addPrice(i, tick.getDatetime(), tick.getClose());
 		}
+        ticks = listSize;
 	}
 	
 	/**
-	 * Determine if there are new bricks to add according to the current (loop) price relative to the previous renko. <br>
-	 * Here, the 'Renko Single Data' is constructed.
-	 * @param i index of Ticks Data
-	 * @param ticksList Ticks data
-	 * @return <strong>primitive boolean</strong> just to simulate the 'continue' loop statement;
+	 * Same as {@link #Renko(List, Double)} streaming the Ticks data,
+	 * only the bricks are kept in memory.
+	 * 
+	 * @param source Read until the end, the caller is responsible for closing it.
+	 * @param brickSize Cannot be less than or equal to 0.00000...
 	 */
-	private boolean addPrices(Integer i, List<OHLCV> ticksList) {
-
-		Double tickClose = ticksList.get(i).getClose();
-		Object tickDatetime = ticksList.get(i).getDatetime();
+	public Renko(TickSource source, Double brickSize) {
 
-		wickMinInLoop = tickClose.compareTo(wickMinInLoop) < 0 ? tickClose : wickMinInLoop;
-		wickMaxInLoop = tickClose.compareTo(wickMaxInLoop) > 0 ? tickClose : wickMaxInLoop;
-		volumeInLoop += 1D;
+		builder = new BrickBuilder(new BrickStore(), brickSize);
+		if (!source.next()) {
+			throw new IllegalArgumentException("TickSource has no ticks");
+		}
+		builder.init(0, source.time(), null, source.price());
 
-		Double lastPrice = rsd.get(rsd.size()-1).getPrice();
-		Double currentNumberBricks = (tickClose - lastPrice) / brickSize;
-		Double currentDirection = Math.signum(currentNumberBricks);
-		if (currentDirection == 0) {
-        	return false;
-        }  
-		Double lastDirection = rsd.get(rsd.size()-1).getDirection();
-		boolean isSameDirection = (currentDirection > 0 && lastDirection >= 0) || (currentDirection < 0 && lastDirection <= 0);
-        
-		// CURRENT PRICE in same direction of the LAST RENKO
-		Double totalSameBricks = isSameDirection ? currentNumberBricks : 0;
-        /* >= 2 can be a 'GAP' or 'OPPOSITE DIRECTION'.
-         * In both cases we add the current wick/volume to the first brick and 'reset' the value of both, since:
-         * If it's a GAP: 
-		 *	- The following bricks after first brick will be 'artificial' since the price has 'skipped' that price region.
-		 *	- (the reason of 'totalSameBricks')
-		 * If it's a OPPOSITE DIRECTION:
-		 *	- Only the first brick will be kept. (the reason of '2' multiply) 
-		 */
-        if (!isSameDirection && Math.abs(currentNumberBricks) >= 2) {
-        	addBrickLoop(i, tickDatetime, 2, currentDirection, currentNumberBricks);
-        	totalSameBricks =  currentNumberBricks - (2 * currentDirection);
-        }
-        
-        // Add all bricks in the same direction
-        for (int noUse = 0; noUse < Math.abs(totalSameBricks.intValue()); noUse++) {
-        	addBrickLoop(i, tickDatetime, 1, currentDirection, currentNumberBricks);
+		int i = 1;
+		while (source.next()) {
+			builder.addPrice(i++, source.time(), null, source.price());
+		}
+		ticks = i;
+	}
+	
+	/**
+	 * Same as {@link #Renko(List, Double)} with primitive arrays of the Ticks data,
+	 * e.g. column chunks of a market-data decoder.
+	 * 
+	 * @param times Epoch nanoseconds
+	 * @param prices Same length as 'times'
+	 * @param from First tick, inclusive
+	 * @param to Last tick, exclusive
+	 * @param brickSize Cannot be less than or equal to 0.00000...
+	 */
+	public Renko(long[] times, double[] prices, int from, int to, double brickSize) {
+		BrickBuilder.checkTicksRange(times, prices, from, to);
+		if (from == to) {
+			throw new IllegalArgumentException("At least one tick is required");
 		}
+		builder = new BrickBuilder(new BrickStore(), brickSize);
+		builder.init(0, times[from], null, prices[from]);
+		ticks = 1;
+		addTicks(times, prices, from + 1, to);
+	}
+	
+	/**
+	 * Same as {@link #Renko(List, Double)} with the opt-in fixed-point engine:
+	 * prices are scaled to long units of 'tickSize', so bricks are counted with integer arithmetic. <br>
+	 * Brick prices are exact multiples of the brick size instead of floating-point sums,
+	 * and a tick exactly N bricks away always adds N bricks, which the floating-point ratio of the default engine
+	 * can miss by an ulp. Strictly equal to renkoPython on US30, not on EURGBP (167 bricks instead of 163),
+	 * see FixedPointBrickBuilder. Use {@link #Renko(List, Double)} for bricks compatible with renkoPython.
+	 * 
+	 * @param tickSize Price increment of the instrument, 1/n (e.g. 0.00001 for EURGBP or 0.1 for US30)
+	 * or a decimal with at most 9 integer and 9 fraction digits (e.g. 2.5, 5 or 10)
+	 * @param brickSize Must be a multiple of 'tickSize'
+	 */
+	public Renko(List<OHLCV> ticksList, Double brickSize, double tickSize) {
 
-        return true;
+		builder = new FixedPointBrickBuilder(new BrickStore(), brickSize, tickSize);
+		builder.init(0, ticksList.get(0).getDatetime(), ticksList.get(0).getClose());
+		ticks = 1;
+		append(ticksList.subList(1, ticksList.size()));
 	}
 	
-	private void addBrickLoop(Integer i, Object tickDatetime, Integer renkoMultiply, Double currentDirection, Double currentNumberBricks) {
-		
-		// Need update value because of 'same direction' inner loop
-		Double lastPrice = rsd.get(rsd.size()-1).getPrice();
-        Double renkoPrice = lastPrice + (currentDirection * renkoMultiply * brickSize);
-        Double wick = currentNumberBricks > 0 ? wickMinInLoop  : wickMaxInLoop;
-        
-        rsd.add(new RSD(i, tickDatetime, renkoPrice, currentDirection, wick, volumeInLoop));
-        
-        // Reset
-        volumeInLoop = 1D;
-        wickMinInLoop = currentNumberBricks > 0 ? renkoPrice : wickMinInLoop;
-        wickMaxInLoop = currentNumberBricks < 0 ? renkoPrice : wickMaxInLoop;
+	/**
+	 * Same as {@link #Renko(long[], double[], int, int, double)} with the opt-in fixed-point engine,
+	 * see {@link #Renko(List, Double, double)}.
+	 * 
+	 * @param tickSize Price increment of the instrument, 1/n (e.g. 0.00001 for EURGBP or 0.1 for US30)
+	 * or a decimal with at most 9 integer and 9 fraction digits (e.g. 2.5, 5 or 10)
+	 */
+	public Renko(long[] times, double[] prices, int from, int to, double brickSize, double tickSize) {
+		BrickBuilder.checkTicksRange(times, prices, from, to);
+		if (from == to) {
+			throw new IllegalArgumentException("At least one tick is required");
+		}
+		builder = new FixedPointBrickBuilder(new BrickStore(), brickSize, tickSize);
+		builder.init(0, times[from], null, prices[from]);
+		ticks = 1;
+		addTicks(times, prices, from + 1, to);
 	}
 	
+	/**
+	 * Renko of already built bricks, see MultiRenko.
+	 * @param ticks Number of ticks given to the builder.
+	 */
+	Renko(BrickEngine builder, int ticks) {
+		this.builder = builder;
+		this.ticks = ticks;
+	}
+	
+	/**
+	 * Appends ticks after the ones already given (e.g. the ticks of the next day),
+	 * continuing from the current wick/volume of the last brick.
+	 * 
+	 * @param ticksList Same fields of {@link #Renko(List, Double)}
+	 * @return Number of new bricks
+	 */
+	public int append(List<OHLCV> ticksList) {
+		BrickStore store = builder.getStore();
+		long added = store.getAddedCount();
+		int tickIndex = ticks;
+		for (OHLCV tick : ticksList) {
+			builder.addPrice(tickIndex++, tick.getDatetime(), tick.getClose());
+		}
+		ticks = tickIndex;
+		return (int) (store.getAddedCount() - added);
+	}
+	
+	/**
+	 * Same as {@link #append(List)} streaming the Ticks data.
+	 * 
+	 * @param source Read until the end, the caller is responsible for closing it.
+	 * @return Number of new bricks
+	 */
+	public int append(TickSource source) {
+		BrickStore store = builder.getStore();
+		long added = store.getAddedCount();
+		int tickIndex = ticks;
+		while (source.next()) {
+			builder.addPrice(tickIndex++, source.time(), null, source.price());
+		}
+		ticks = tickIndex;
+		return (int) (store.getAddedCount() - added);
+	}
+	
+	/**
+	 * Appends ticks after the ones already given, in a tight loop over the arrays. <br>
+	 * With the default engine and '--add-modules jdk.incubator.vector', the prices that stay inside
+	 * the current brick are skipped by a SIMD scan, see VectorBandScan.
+	 * 
+	 * @param times Epoch nanoseconds
+	 * @param prices Same length as 'times'
+	 * @param from First tick, inclusive
+	 * @param to Last tick, exclusive
+	 * @return Number of new bricks
+	 */
+	public int addTicks(long[] times, double[] prices, int from, int to) {
+		BrickBuilder.checkTicksRange(times, prices, from, to);
+		BrickStore store = builder.getStore();
+		long added = store.getAddedCount();
+		builder.addTicks(ticks, times, prices, from, to);
+		ticks += to - from;
+		return (int) (store.getAddedCount() - added);
+	}
+	
+	/**
+	 * Same as {@link #addTicks(long[], double[], int, int)} with the remaining ticks of both buffers,
+	 * their positions are moved to the limit.
+	 * 
+	 * @return Number of new bricks
+	 */
+	public int addTicks(LongBuffer times, DoubleBuffer prices) {
+		int count = BrickBuilder.checkTicksRemaining(times, prices);
+		BrickStore store = builder.getStore();
+		long added = store.getAddedCount();
+		int timesFrom = times.position();
+		int pricesFrom = prices.position();
+		int tickIndex = ticks;
+		for (int i = 0; i < count; i++) {
+			builder.addPrice(tickIndex++, times.get(timesFrom + i), null, prices.get(pricesFrom + i));
+		}
+		ticks = tickIndex;
+		times.position(timesFrom + count);
+		prices.position(pricesFrom + count);
+		return (int) (store.getAddedCount() - added);
+	}
+	
+	/**
+	 * 'Renko Single Data' as a read-only view of the brick store.
+	 * @param maxSize first N (positive) or last N (negative) bricks, all if null.
+	 */
 	public List<RSD> getRSD(Integer maxSize) {
+		List<RSD> rsd = builder.getStore().asRSDList();
 		if(maxSize != null) {
-			if (maxSize > 0) {
-				return rsd.stream().limit(maxSize).collect(Collectors.toList());
+			if (maxSize >= 0) {
+				return bricks(0, Math.min(maxSize, rsd.size()));
 			} else {
-				return rsd.subList(Math.max(rsd.size() - maxSize, 0), rsd.size());
+				return lastBricks(maxSize == Integer.MIN_VALUE ? Integer.MAX_VALUE : -maxSize);
 			}
 		} else {
 			return rsd;
 		}
 	}
 	
+	/**
+	 * 'Renko Single Data' [fromIndex, toIndex) as a read-only view of the brick store, nothing is copied.
+	 * @throws IndexOutOfBoundsException if the range is out of the bricks
+	 */
+	public List<RSD> bricks(int fromIndex, int toIndex) {
+		return Ranges.range(builder.getStore().asRSDList(), fromIndex, toIndex);
+	}
+	
+	/**
+	 * The last 'n' bricks (all if there are fewer) as a read-only view of the brick store, nothing is copied.
+	 * @throws IllegalArgumentException if n is negative
+	 */
+	public List<RSD> lastBricks(int n) {
+		return Ranges.last(builder.getStore().asRSDList(), n);
+	}
+	
+	/**
+	 * Bricks with time in [startTime, endTime) as a read-only view of the brick store, found by binary search.
+	 * @param startTime Epoch nanoseconds, inclusive
+	 * @param endTime Epoch nanoseconds, exclusive
+	 * @throws IllegalStateException if a brick has no time, see {@link BrickStore#indexAtOrAfter(long)}
+	 */
+	public List<RSD> bricksBetween(long startTime, long endTime) {
+		BrickStore store = builder.getStore();
+		int fromIndex = store.indexAtOrAfter(startTime);
+		return Ranges.range(store.asRSDList(), fromIndex, Math.max(fromIndex, store.indexAtOrAfter(endTime)));
+	}
+	
+	/**
+	 * The last brick at or before 'time', found by binary search.
+	 * @param time Epoch nanoseconds
+	 * @return null if all bricks are after 'time'
+	 * @throws IllegalStateException if a brick has no time, see {@link BrickStore#indexAtOrAfter(long)}
+	 */
+	public RSD brickAt(long time) {
+		BrickStore store = builder.getStore();
+		int index = store.indexAfter(time) - 1;
+		return index >= 0 ? store.getRSD(index) : null;
+	}
+	
+	/**
+	 * Columnar 'Renko Single Data', read-only.
+	 */
+	public BrickStore getBrickStore() {
+		return builder.getStore();
+	}
+	
 	/**
 	 * Transforms 'Renko Single Data' into OHLCV List. <br>
 	 * @param mode The method for building the Renko List, <br>
@@ -168,101 +319,107 @@ public class Renko {
 	 */
 	public List<OHLCV> renkodf(String mode) {
 		
-		String msg = String.format("Mode: \"%s\" does not exist, using \"normal\" instead", mode);
-		if (!MODE_LIST.contains(mode)) {
-			logger.log(Level.WARNING, msg);
-			mode = MODE_LIST.get(0);
+		RenkoMode renkoMode = RenkoMode.fromName(mode);
+		if (renkoMode == null) {
+			logger.log(Level.WARNING, String.format("Mode: \"%s\" does not exist, using \"normal\" instead", mode));
+			renkoMode = RenkoMode.NORMAL;
 		}
-
-		List<OHLCV> renkoList = new ArrayList<>(rsd.size());
-
-        boolean reverseModeRule = Set.of("normal","wicks","reverse-wicks","fake-r-wicks").contains(mode);
-        boolean fakeReverseModeRule = Set.of("fake-r-nongap", "fake-r-wicks").contains(mode);
-        boolean sameDirectionRule = Set.of("wicks","nongap").contains(mode);
-
-        Double prevDirection = 0D;
-        Double prevClose = 0D;
-		Double prevCloseUP = 0D;
-        Double prevCloseDOWN = 0D;
-        for (int i = 0; i < rsd.size(); i++) {
-
-        	Double price = rsd.get(i).getPrice();
-        	Double direction = rsd.get(i).getDirection();
-        	Object date = rsd.get(i).getDate();
-        	Double wick = rsd.get(i).getWick();
-        	Double volume = rsd.get(i).getVolume();
-        	
-            OHLCV toAdd = new OHLCV(date, price, volume);
-
-            // Current Renko (UP)
-        	if (direction == 1.0) {
-        		
-                toAdd.setHigh(price);
-                // Previous same direction(UP)
-                if (prevDirection == 1) {
-                	toAdd.setOpen(mode.equals("nongap") ? wick : prevClose);
-                	toAdd.setLow(sameDirectionRule ? wick : prevClose);
-                }
-                // Previous reverse direction(DOWN) 
-                else {
-                    if (reverseModeRule) {
-                    	toAdd.setOpen(prevClose + brickSize);
-                    } else if (mode.equals("fake-r-nongap")) {
-                    	toAdd.setOpen(prevCloseDOWN);
-                    } else {
-                    	toAdd.setOpen(wick);
-                    }
-                    if (mode.equals("normal")) {
-                    	toAdd.setLow(prevClose + brickSize);
-                    } else if (fakeReverseModeRule) {
-                    	toAdd.setLow(prevCloseDOWN);
-                    } else {
-                    	toAdd.setLow(wick);
-                    }
-        		}
-                
-                renkoList.add(toAdd);
-                prevCloseUP = price;
-        	}
-            // Current Renko (DOWN)
-        	else if (direction == -1) {
-        		
-                toAdd.setLow(price);
-                // Previous same direction(DOWN)
-                if (prevDirection == -1) {
-                	toAdd.setOpen(mode.equals("nongap") ? wick : prevClose);
-                	toAdd.setHigh(sameDirectionRule ? wick : prevClose);
-                }
-                // Previous reverse direction(UP) 
-                else {
-                    if (reverseModeRule) {
-                    	toAdd.setOpen(prevClose - brickSize);
-                    } else if (mode.equals("fake-r-nongap")) {
-                    	toAdd.setOpen(prevCloseUP);
-                    } else {
-                    	toAdd.setOpen(wick);
-                    }
-
-                    if (mode.equals("normal")) {
-                    	toAdd.setHigh(prevClose - brickSize);
-                    } else if (fakeReverseModeRule) {
-                    	toAdd.setHigh(prevCloseUP);
-                    } else {
-                    	toAdd.setHigh(wick);
-                    }
-        		}
-                
-                renkoList.add(toAdd);
-                prevCloseDOWN = price;
-        	}
-
-            prevDirection = direction;
-            prevClose = price;
+		return renkodf(renkoMode);
+	}
+	
+	/**
+	 * Same as {@link #renkodf(String)} without parsing the mode.
+	 * @param mode RenkoMode
+	 * @return List of OHLCV
+	 */
+	public List<OHLCV> renkodf(RenkoMode mode) {
+		RenkoMetrics metrics = builder.getMetrics();
+		if (metrics == null) {
+			return new RenkoConverter(mode).update(builder.getStore(), builder.getBrickSize());
 		}
-
-        // Removing first row
-        renkoList.remove(0);
-
-        return renkoList;
+		long start = System.nanoTime();
+		List<OHLCV> renkoList = new RenkoConverter(mode).update(builder.getStore(), builder.getBrickSize());
+		metrics.recordRenkoAnimate(System.nanoTime() - start);
+		return renkoList;
+	}
+	
+	/**
+	 * Same renkos of {@link #renkodf(RenkoMode)}, but the conversion of each mode is kept,
+	 * so only the bricks appended since the last call of the same mode are converted.
+	 * @param mode RenkoMode
+	 * @return Read-only List of OHLCV, updated by the next calls of the same mode, a copy of the renko is created at each access
+	 */
+	public List<OHLCV> renkodfIncremental(RenkoMode mode) {
+		RenkoMetrics metrics = builder.getMetrics();
+		RenkoConverter converter = converters.computeIfAbsent(mode, RenkoConverter::new);
+		if (metrics == null) {
+			return new RenkoCopyView(converter.update(builder.getStore(), builder.getBrickSize()));
+		}
+		long start = System.nanoTime();
+		List<OHLCV> renkoList = converter.update(builder.getStore(), builder.getBrickSize());
+		metrics.recordRenkoAnimate(System.nanoTime() - start);
+		return new RenkoCopyView(renkoList);
+	}
+	
+	/**
+	 * Same renkos of {@link #renkodf(RenkoMode)} as a lazy read-only view, nothing is converted until accessed. <br>
+	 * Each get(index) converts that renko from its brick and the previous one,
+	 * so reading a subList (e.g. the visible window of a chart) never converts the whole history.
+	 * The view follows the ticks added later and, like the brick store, must be read by one thread at a time.
+	 * @param mode RenkoMode
+	 * @return RandomAccess List of OHLCV, a new OHLCV is created at each access
+	 */
+	public List<OHLCV> renkodfView(RenkoMode mode) {
+		return new RenkoListView(builder.getStore(), builder.getBrickSize(), mode);
+	}
+	
+	/**
+	 * Same as calling {@link #renkodf(RenkoMode)} for each mode, in a single pass over the bricks.
+	 * @param modes e.g. EnumSet.of(RenkoMode.NORMAL, RenkoMode.WICKS) or EnumSet.allOf(RenkoMode.class)
+	 * @return List of OHLCV of each mode
+	 */
+	public Map<RenkoMode, List<OHLCV>> renkodfAll(EnumSet<RenkoMode> modes) {
+		RenkoMetrics metrics = builder.getMetrics();
+		if (metrics == null) {
+			return RenkoConverter.convertAll(modes, builder.getStore(), builder.getBrickSize());
+		}
+		long start = System.nanoTime();
+		Map<RenkoMode, List<OHLCV>> renkos = RenkoConverter.convertAll(modes, builder.getStore(), builder.getBrickSize());
+		metrics.recordRenkoAnimate(System.nanoTime() - start);
+		return renkos;
+	}
+	
+	/**
+	 * Same renkos [fromIndex, toIndex) of {@link #renkodf(RenkoMode)},
+	 * only the bricks of that range are converted.
+	 * @throws IndexOutOfBoundsException if the range is out of the renkos
+	 */
+	public List<OHLCV> renkos(RenkoMode mode, int fromIndex, int toIndex) {
+		return new RenkoConverter(mode).convertRange(builder.getStore(), fromIndex, toIndex, builder.getBrickSize());
+	}
+	
+	/**
+	 * Same last 'n' renkos (all if there are fewer) of {@link #renkodf(RenkoMode)},
+	 * only these bricks are converted.
+	 * @throws IllegalArgumentException if n is negative
+	 */
+	public List<OHLCV> lastRenkos(RenkoMode mode, int n) {
+		int size = RenkoConverter.closedSize(builder.getStore());
+		return renkos(mode, size - Ranges.checkCount(n, size), size);
+	}
+	
+	/**
+	 * Enables the metrics (ticks, bricks, gaps, reversals, renkodf latency) of the next addTicks/renkodf calls.
+	 * @param metrics null to disable them.
+	 */
+	public void setMetrics(RenkoMetrics metrics) {
+		builder.setMetrics(metrics);
+	}
+	
+	/**
+	 * @return null if disabled.
+	 */
+	public RenkoMetrics getMetrics() {
+		return builder.getMetrics();
 	}
 }
@@ -0,0 +1,88 @@
+package renkodf;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import renkodf.wrappers.OHLCV;
+
+/**
+ * List of the closed renkos followed by the forming renko, owned by the caller. <br>
+ * The closed renkos are not copied until accessed: each one is copied at its first get, then the same copy is returned,
+ * so modifying it never changes the renkos kept by the converter. The list itself is copied at the first modification
+ * (set, add or remove). Only the size at creation time is kept, so later bricks added to the underlying list are not visible.
+ */
+class RenkoAnimateList extends AbstractList<OHLCV> implements RandomAccess {
+
+	private final List<OHLCV> closedList;
+	private final int closedSize;
+	private final OHLCV formingRenko;
+	// Copies of the accessed closed renkos, created by the first get
+	private OHLCV[] closedCopies;
+	// Created by the first modification, then used instead of the closed list
+	private ArrayList<OHLCV> copy;
+
+	RenkoAnimateList(List<OHLCV> closedList, OHLCV formingRenko) {
+		this.closedList = closedList;
+		this.closedSize = closedList.size();
+		this.formingRenko = formingRenko;
+	}
+
+	@Override
+	public OHLCV get(int index) {
+		if (copy != null) {
+			return copy.get(index);
+		}
+		if (index == closedSize) {
+			return formingRenko;
+		}
+		if (index < 0 || index > closedSize) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+		if (closedCopies == null) {
+			closedCopies = new OHLCV[closedSize];
+		}
+		OHLCV renko = closedCopies[index];
+		if (renko == null) {
+			renko = new OHLCV(closedList.get(index));
+			closedCopies[index] = renko;
+		}
+		return renko;
+	}
+
+	@Override
+	public int size() {
+		return copy != null ? copy.size() : closedSize + 1;
+	}
+
+	@Override
+	public OHLCV set(int index, OHLCV element) {
+		return ownList().set(index, element);
+	}
+
+	@Override
+	public void add(int index, OHLCV element) {
+		ownList().add(index, element);
+		modCount++;
+	}
+
+	@Override
+	public OHLCV remove(int index) {
+		OHLCV removed = ownList().remove(index);
+		modCount++;
+		return removed;
+	}
+
+	private ArrayList<OHLCV> ownList() {
+		if (copy == null) {
+			ArrayList<OHLCV> list = new ArrayList<>(closedSize + 1);
+			for (int i = 0; i <= closedSize; i++) {
+				list.add(get(i));
+			}
+			copy = list;
+			closedCopies = null;
+		}
+		return copy;
+	}
+}
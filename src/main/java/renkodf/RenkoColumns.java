@@ -0,0 +1,180 @@
+package renkodf;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+import renkodf.wrappers.OHLCV;
+
+/**
+ * Primitive columns (time, open, high, low, close, volume) of the renkos of a single mode,
+ * the closed renkos followed by the forming renko. <br>
+ * The closed renkos are converted once and appended, so reading the whole series copies nothing.
+ * The column buffers are read-only views of the internal arrays and are only valid
+ * until the next call of RenkoWS.columns(mode), which updates this object. <br>
+ * With a bounded RenkoWS, only the last 'maxBricks' closed renkos are visible, same as renkoAnimate.
+ */
+public final class RenkoColumns {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private long[] time = new long[DEFAULT_CAPACITY];
+	private double[] open = new double[DEFAULT_CAPACITY];
+	private double[] high = new double[DEFAULT_CAPACITY];
+	private double[] low = new double[DEFAULT_CAPACITY];
+	private double[] close = new double[DEFAULT_CAPACITY];
+	private double[] volume = new double[DEFAULT_CAPACITY];
+
+	// Closed renkos stored, the visible ones start at 'first'
+	private int stored = 0;
+	private int first = 0;
+	private boolean hasForming = false;
+
+	RenkoColumns() {
+	}
+
+	void addClosed(OHLCV renko, long epochNanos) {
+		// Always keep a slot for the forming renko
+		if (stored + 1 >= open.length) {
+			grow();
+		}
+		set(stored, renko, epochNanos);
+		stored++;
+		hasForming = false;
+	}
+
+	void setForming(OHLCV formingRenko, long epochNanos) {
+		set(stored, formingRenko, epochNanos);
+		hasForming = true;
+	}
+
+	/**
+	 * Hides all but the last 'count' closed renkos, without moving them.
+	 */
+	void keepLast(int count) {
+		first = Math.max(0, stored - count);
+	}
+
+	void clear() {
+		stored = 0;
+		first = 0;
+		hasForming = false;
+	}
+
+	/**
+	 * Drops the oldest closed renkos, see the bounded RenkoWS.
+	 */
+	void removeFirst(int count) {
+		int moved = stored - count;
+		System.arraycopy(time, count, time, 0, moved);
+		System.arraycopy(open, count, open, 0, moved);
+		System.arraycopy(high, count, high, 0, moved);
+		System.arraycopy(low, count, low, 0, moved);
+		System.arraycopy(close, count, close, 0, moved);
+		System.arraycopy(volume, count, volume, 0, moved);
+		stored = moved;
+		first = Math.max(0, first - count);
+		hasForming = false;
+	}
+
+	private void set(int i, OHLCV renko, long epochNanos) {
+		time[i] = epochNanos;
+		open[i] = renko.getOpen();
+		high[i] = renko.getHigh();
+		low[i] = renko.getLow();
+		close[i] = renko.getClose();
+		volume[i] = renko.getVolume();
+	}
+
+	private void grow() {
+		int newCapacity = open.length + (open.length >> 1);
+		time = Arrays.copyOf(time, newCapacity);
+		open = Arrays.copyOf(open, newCapacity);
+		high = Arrays.copyOf(high, newCapacity);
+		low = Arrays.copyOf(low, newCapacity);
+		close = Arrays.copyOf(close, newCapacity);
+		volume = Arrays.copyOf(volume, newCapacity);
+	}
+
+	/**
+	 * @return Number of renkos, including the forming renko.
+	 */
+	public int size() {
+		return hasForming ? closedSize() + 1 : closedSize();
+	}
+	/**
+	 * @return Number of closed renkos, the forming renko (if any) is at this index.
+	 */
+	public int closedSize() {
+		return stored - first;
+	}
+
+	public long getTime(int i) {
+		return time[checkIndex(i)];
+	}
+	public double getOpen(int i) {
+		return open[checkIndex(i)];
+	}
+	public double getHigh(int i) {
+		return high[checkIndex(i)];
+	}
+	public double getLow(int i) {
+		return low[checkIndex(i)];
+	}
+	public double getClose(int i) {
+		return close[checkIndex(i)];
+	}
+	public double getVolume(int i) {
+		return volume[checkIndex(i)];
+	}
+
+	private int checkIndex(int i) {
+		if (i < 0 || i >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size());
+		}
+		return first + i;
+	}
+
+	/**
+	 * @return Epoch nanoseconds, {@link BrickStore#NO_TIME} if unknown.
+	 */
+	public LongBuffer time() {
+		return LongBuffer.wrap(time, first, size()).slice().asReadOnlyBuffer();
+	}
+	public DoubleBuffer open() {
+		return view(open);
+	}
+	public DoubleBuffer high() {
+		return view(high);
+	}
+	public DoubleBuffer low() {
+		return view(low);
+	}
+	public DoubleBuffer close() {
+		return view(close);
+	}
+	public DoubleBuffer volume() {
+		return view(volume);
+	}
+
+	private DoubleBuffer view(double[] column) {
+		return DoubleBuffer.wrap(column, first, size()).slice().asReadOnlyBuffer();
+	}
+
+	/**
+	 * Copy of the values in [from, to) of a column, e.g. the plotted window of a chart.
+	 * The position of the column is not changed.
+	 * @param column Buffer returned by open(), high(), low(), close() or volume()
+	 * @throws IndexOutOfBoundsException if the range is not within the column
+	 */
+	public static double[] copyRange(DoubleBuffer column, int from, int to) {
+		if (from < 0 || to > column.limit() || from > to) {
+			throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), Size: " + column.limit());
+		}
+		double[] data = new double[to - from];
+		DoubleBuffer range = column.duplicate();
+		range.position(from);
+		range.get(data);
+		return data;
+	}
+}
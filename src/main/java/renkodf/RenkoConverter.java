@@ -0,0 +1,411 @@
+package renkodf;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import renkodf.wrappers.OHLCV;
+
+/**
+ * Incremental 'Renko Single Data' to OHLCV conversion of a single mode. <br>
+ * Keeps the already converted (closed) bricks and the loop state of the last one,
+ * so each {@link #update(BrickStore, double)} only converts the bricks added since the previous call.
+ */
+class RenkoConverter {
+
+	private final RenkoMode mode;
+	private final boolean reverseModeRule;
+	private final boolean fakeReverseModeRule;
+	private final boolean sameDirectionRule;
+	private final boolean nongapOpen;
+	private final boolean fakeReverseNongapOpen;
+	private final boolean normalLowHigh;
+
+	private final int maxSize;
+	private final ArrayList<OHLCV> renkoList = new ArrayList<>();
+	// Only created when requested
+	private RenkoColumns columns;
+	private long convertedRSD = 0;
+	private boolean firstRowRemoved = false;
+
+	private double prevDirection = 0D;
+	private double prevClose = 0D;
+	// Same value of 'prevClose', null until boxed
+	private Double prevCloseBox;
+	private double prevCloseUP = 0D;
+	private double prevCloseDOWN = 0D;
+
+	RenkoConverter(RenkoMode mode) {
+		this(mode, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param maxSize At least the last 'maxSize' closed bricks are kept, the older ones are dropped.
+	 */
+	RenkoConverter(RenkoMode mode, int maxSize) {
+		this.mode = mode;
+		this.maxSize = maxSize;
+		reverseModeRule = mode.isReverseModeRule();
+		fakeReverseModeRule = mode.isFakeReverseModeRule();
+		sameDirectionRule = mode.isSameDirectionRule();
+		nongapOpen = mode.isSameDirectionRule() && mode.isNongapRule();
+		fakeReverseNongapOpen = mode.isFakeReverseModeRule() && mode.isNongapRule();
+		normalLowHigh = mode == RenkoMode.NORMAL;
+	}
+
+	RenkoMode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Writes the conversion state and the kept closed bricks, see {@link Snapshots}.
+	 */
+	void write(DataOutput out) throws IOException {
+		out.writeByte(mode.ordinal());
+		out.writeLong(convertedRSD);
+		out.writeBoolean(firstRowRemoved);
+		out.writeDouble(prevDirection);
+		out.writeDouble(prevClose);
+		out.writeDouble(prevCloseUP);
+		out.writeDouble(prevCloseDOWN);
+		out.writeInt(renkoList.size());
+		for (OHLCV ohlcv : renkoList) {
+			Snapshots.writeOHLCV(out, ohlcv);
+		}
+	}
+
+	static RenkoConverter read(DataInput in, int maxSize) throws IOException {
+		int ordinal = in.readByte();
+		RenkoMode[] modes = RenkoMode.values();
+		if (ordinal < 0 || ordinal >= modes.length) {
+			throw new IOException("Unknown renko-mode in snapshot: " + ordinal);
+		}
+		RenkoConverter converter = new RenkoConverter(modes[ordinal], maxSize);
+		converter.convertedRSD = in.readLong();
+		converter.firstRowRemoved = in.readBoolean();
+		converter.prevDirection = in.readDouble();
+		converter.prevClose = in.readDouble();
+		converter.prevCloseUP = in.readDouble();
+		converter.prevCloseDOWN = in.readDouble();
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			converter.renkoList.add(Snapshots.readOHLCV(in));
+		}
+		return converter;
+	}
+
+	/**
+	 * Converts the bricks added to the store since the last call. <br>
+	 * With a bounded store, if some of them were already dropped (not called at least once every 'store maxSize' bricks,
+	 * or a single price added more bricks), the kept renkos are cleared and the conversion restarts
+	 * from the oldest brick of the store, that has no renko since its previous brick is unknown.
+	 * @return Closed bricks as OHLCV, the first row is never included.
+	 * When bounded, only the last ones (up to 2 * maxSize) are kept.
+	 */
+	List<OHLCV> update(BrickStore store, double brickSize) {
+		int storeSize = store.size();
+		long newBricks = store.getAddedCount() - convertedRSD;
+		int from = (int) Math.max(0, storeSize - newBricks);
+		if (newBricks > storeSize && storeSize > 0) {
+			// The kept renkos would be followed by the wrong ones
+			if (columns != null) {
+				columns.clear();
+			}
+			renkoList.clear();
+			seek(store, 1);
+			from = 1;
+		}
+		for (int i = from; i < storeSize; i++) {
+			OHLCV converted = convertNext(store, i, brickSize);
+			if (converted != null) {
+				renkoList.add(converted);
+				if (columns != null) {
+					columns.addClosed(converted, store.getTime(i));
+				}
+			}
+		}
+		convertedRSD = store.getAddedCount();
+
+		// Amortized O(1), the list is trimmed once it is twice the max size
+		if (renkoList.size() >= 2L * maxSize) {
+			int removed = renkoList.size() - maxSize;
+			renkoList.subList(0, removed).clear();
+			if (columns != null) {
+				columns.removeFirst(removed);
+			}
+		}
+
+		return renkoList;
+	}
+
+	/**
+	 * Same as {@link #update(BrickStore, double)} of a new converter for each mode, in a single pass over the store:
+	 * each brick is read once and converted by all modes.
+	 * @return Closed renkos of each mode, in the order of RenkoMode.
+	 */
+	static Map<RenkoMode, List<OHLCV>> convertAll(Set<RenkoMode> modes, BrickStore store, double brickSize) {
+		RenkoConverter[] converters = new RenkoConverter[modes.size()];
+		int c = 0;
+		for (RenkoMode mode : modes) {
+			converters[c] = new RenkoConverter(mode);
+			converters[c].renkoList.ensureCapacity(store.size());
+			c++;
+		}
+
+		int storeSize = store.size();
+		for (int i = 0; i < storeSize; i++) {
+			Double price = store.getPrice(i);
+			byte direction = store.getDirection(i);
+			Object date = store.getDate(i);
+			Double wick = store.getWick(i);
+			Double volume = store.getVolume(i);
+			for (RenkoConverter converter : converters) {
+				OHLCV converted = converter.convertNext(price, direction, date, wick, volume, brickSize);
+				if (converted != null) {
+					converter.renkoList.add(converted);
+				}
+			}
+		}
+
+		Map<RenkoMode, List<OHLCV>> renkos = new EnumMap<>(RenkoMode.class);
+		for (RenkoConverter converter : converters) {
+			converter.convertedRSD = store.getAddedCount();
+			renkos.put(converter.mode, converter.renkoList);
+		}
+		return renkos;
+	}
+
+	/**
+	 * Number of closed renkos of an unbounded store, as returned by {@link #update(BrickStore, double)}.
+	 */
+	static int closedSize(BrickStore store) {
+		return Math.max(store.size() - firstClosedBrick(store), 0);
+	}
+
+	/**
+	 * Store index of the first closed renko, after the first row (direction 0) and the removed first converted brick.
+	 */
+	private static int firstClosedBrick(BrickStore store) {
+		return store.size() > 0 && store.getDirection(0) == 0 ? 2 : 1;
+	}
+
+	/**
+	 * Converts only the closed renkos [fromIndex, toIndex) of an unbounded store. <br>
+	 * The loop state is taken from the brick before 'fromIndex' instead of converting all the previous ones:
+	 * the previous close of the opposite direction is only read right after a brick of that direction,
+	 * which is either the brick before 'fromIndex' or an already converted one.
+	 * @return Same renkos of {@link #update(BrickStore, double)} in that range.
+	 */
+	List<OHLCV> convertRange(BrickStore store, int fromIndex, int toIndex, double brickSize) {
+		Ranges.checkRange(fromIndex, toIndex, closedSize(store));
+		List<OHLCV> renkos = new ArrayList<>(toIndex - fromIndex);
+		if (fromIndex == toIndex) {
+			return renkos;
+		}
+		int first = firstClosedBrick(store);
+		seek(store, fromIndex + first);
+		for (int i = fromIndex + first; i < toIndex + first; i++) {
+			renkos.add(convertNext(store, i, brickSize));
+		}
+		return renkos;
+	}
+
+	/**
+	 * The closed renko 'index' of an unbounded store, converted from its brick and the previous one only,
+	 * see {@link #convertRange(BrickStore, int, int, double)}.
+	 */
+	OHLCV convertAt(BrickStore store, int index, double brickSize) {
+		int i = index + firstClosedBrick(store);
+		seek(store, i);
+		return convertNext(store, i, brickSize);
+	}
+
+	/**
+	 * Loop state as if all the bricks before 'i' were converted.
+	 */
+	private void seek(BrickStore store, int i) {
+		prevDirection = store.getDirection(i - 1);
+		prevClose = store.getPrice(i - 1);
+		prevCloseBox = null;
+		prevCloseUP = prevClose;
+		prevCloseDOWN = prevClose;
+		firstRowRemoved = true;
+	}
+
+	/**
+	 * Primitive columns of the closed bricks, kept up to date by {@link #update(BrickStore, double)} once requested.
+	 */
+	RenkoColumns getColumns() {
+		if (columns == null) {
+			columns = new RenkoColumns();
+			for (OHLCV renko : renkoList) {
+				columns.addClosed(renko, BrickStore.toEpochNanos(renko.getDatetime()));
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * Converts the brick 'i' of the store, which must be the one following the previously converted brick. <br>
+	 * Nothing is kept, so it can be used with bounded stores.
+	 * @return null for the first row (or the first converted brick, that is removed), otherwise the closed brick.
+	 */
+	OHLCV convertNext(BrickStore store, int i, double brickSize) {
+		return convertNext(store.getPrice(i), store.getDirection(i), store.getDate(i), store.getWick(i), store.getVolume(i), brickSize);
+	}
+
+	/**
+	 * Same as {@link #convertNext(BrickStore, int, double)} with the brick already read from the store. <br>
+	 * The boxed values are shared by the renkos, so each one is only boxed once per brick.
+	 */
+	private OHLCV convertNext(Double price, byte direction, Object date, Double wick, Double volume, double brickSize) {
+
+		OHLCV toAdd = null;
+
+		// Current Renko (UP)
+		if (direction == 1) {
+
+			// OHLC = price
+			toAdd = new OHLCV(date, price, volume);
+			// Previous same direction(UP)
+			if (prevDirection == 1) {
+				toAdd.setOpen(nongapOpen ? wick : boxedPrevClose());
+				toAdd.setLow(sameDirectionRule ? wick : boxedPrevClose());
+			}
+			// Previous reverse direction(DOWN)
+			else {
+				if (reverseModeRule) {
+					toAdd.setOpen(prevClose + brickSize);
+				} else if (fakeReverseNongapOpen) {
+					toAdd.setOpen(prevCloseDOWN);
+				} else {
+					toAdd.setOpen(wick);
+				}
+				if (normalLowHigh) {
+					toAdd.setLow(prevClose + brickSize);
+				} else if (fakeReverseModeRule) {
+					toAdd.setLow(prevCloseDOWN);
+				} else {
+					toAdd.setLow(wick);
+				}
+			}
+
+			prevCloseUP = price;
+		}
+		// Current Renko (DOWN)
+		else if (direction == -1) {
+
+			// OHLC = price
+			toAdd = new OHLCV(date, price, volume);
+			// Previous same direction(DOWN)
+			if (prevDirection == -1) {
+				toAdd.setOpen(nongapOpen ? wick : boxedPrevClose());
+				toAdd.setHigh(sameDirectionRule ? wick : boxedPrevClose());
+			}
+			// Previous reverse direction(UP)
+			else {
+				if (reverseModeRule) {
+					toAdd.setOpen(prevClose - brickSize);
+				} else if (fakeReverseNongapOpen) {
+					toAdd.setOpen(prevCloseUP);
+				} else {
+					toAdd.setOpen(wick);
+				}
+
+				if (normalLowHigh) {
+					toAdd.setHigh(prevClose - brickSize);
+				} else if (fakeReverseModeRule) {
+					toAdd.setHigh(prevCloseUP);
+				} else {
+					toAdd.setHigh(wick);
+				}
+			}
+
+			prevCloseDOWN = price;
+		}
+
+		prevDirection = direction;
+		prevClose = price;
+		prevCloseBox = price;
+
+		// Removing first row
+		if (toAdd != null && !firstRowRemoved) {
+			firstRowRemoved = true;
+			return null;
+		}
+		return toAdd;
+	}
+
+	private Double boxedPrevClose() {
+		if (prevCloseBox == null) {
+			prevCloseBox = prevClose;
+		}
+		return prevCloseBox;
+	}
+
+	/**
+	 * The forming renko of this mode, from the loop state of the builder.
+	 * @param lastClosed null if there is no closed renko yet.
+	 * @param initialOHLCV Open of the forming renko when there is no closed renko.
+	 */
+	OHLCV forming(OHLCV lastClosed, BrickEngine builder, Object date, double price, OHLCV initialOHLCV) {
+
+		double wickMinInLoop = builder.getWickMinInLoop();
+		double wickMaxInLoop = builder.getWickMaxInLoop();
+		OHLCV formingRenko = new OHLCV(date, price, builder.getVolumeInLoop());
+
+		if (lastClosed == null) {
+			formingRenko.setOpen(initialOHLCV.getClose());
+			formingRenko.setHigh(wickMaxInLoop);
+			formingRenko.setLow(wickMinInLoop);
+			return formingRenko;
+		}
+
+		// Forming wick
+		formingRenko.setHigh(!normalLowHigh ? wickMaxInLoop : price);
+		formingRenko.setLow(!normalLowHigh ? wickMinInLoop : price);
+
+		boolean nongapRule = mode.isNongapRule();
+
+		double lastRenkoClose = lastClosed.getClose();
+		double lastRenkoOpen = lastClosed.getOpen();
+
+		// Last Renko (UP)
+		if (lastRenkoClose > lastRenkoOpen) {
+			if (price > lastRenkoClose) {
+				formingRenko.setOpen(nongapRule ? wickMinInLoop : lastRenkoClose);
+				if (normalLowHigh) {
+					formingRenko.setLow(lastRenkoClose);
+				}
+			}
+			else if (price < lastRenkoOpen) {
+				formingRenko.setOpen(nongapRule ? wickMaxInLoop : lastRenkoOpen);
+				if (normalLowHigh) {
+					formingRenko.setHigh(lastRenkoOpen);
+				}
+			}
+		}
+		// Last Renko (DOWN)
+		else {
+			if (price < lastRenkoClose) {
+				formingRenko.setOpen(nongapRule ? wickMaxInLoop : lastRenkoClose);
+				if (normalLowHigh) {
+					formingRenko.setHigh(lastRenkoClose);
+				}
+			}
+			else if (price > lastRenkoOpen) {
+				formingRenko.setOpen(nongapRule ? wickMinInLoop : lastRenkoOpen);
+				if (normalLowHigh) {
+					formingRenko.setLow(lastRenkoOpen);
+				}
+			}
+		}
+
+		return formingRenko;
+	}
+}
@@ -0,0 +1,30 @@
+package renkodf;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import renkodf.wrappers.OHLCV;
+
+/**
+ * Read-only view of renkos kept by an engine, a copy of the renko is created at each access,
+ * so modifying it never changes the kept renkos (or the forming renko computed from the last one).
+ */
+class RenkoCopyView extends AbstractList<OHLCV> implements RandomAccess {
+
+	private final List<OHLCV> renkos;
+
+	RenkoCopyView(List<OHLCV> renkos) {
+		this.renkos = renkos;
+	}
+
+	@Override
+	public OHLCV get(int index) {
+		return new OHLCV(renkos.get(index));
+	}
+
+	@Override
+	public int size() {
+		return renkos.size();
+	}
+}
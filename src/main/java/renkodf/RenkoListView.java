@@ -0,0 +1,38 @@
+package renkodf;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import renkodf.wrappers.OHLCV;
+
+/**
+ * Read-only view of the closed renkos of a mode, each one converted on access from the brick store. <br>
+ * A renko only depends on its brick and the previous one, so any index (or subList) is converted in O(1)
+ * without converting the previous renkos. The view follows the bricks added later to the store.
+ */
+class RenkoListView extends AbstractList<OHLCV> implements RandomAccess {
+
+	private final BrickStore store;
+	private final double brickSize;
+	// Loop state is reset by each access
+	private final RenkoConverter converter;
+
+	RenkoListView(BrickStore store, double brickSize, RenkoMode mode) {
+		this.store = store;
+		this.brickSize = brickSize;
+		this.converter = new RenkoConverter(mode);
+	}
+
+	@Override
+	public OHLCV get(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+		return converter.convertAt(store, index, brickSize);
+	}
+
+	@Override
+	public int size() {
+		return RenkoConverter.closedSize(store);
+	}
+}
@@ -0,0 +1,23 @@
+package renkodf;
+
+import renkodf.wrappers.OHLCV;
+
+/**
+ * Callback of RenkoWS/RenkoWSModified, registered for a single RenkoMode. <br>
+ * Called by the thread adding the prices, the given OHLCV belong to the listener and can be modified.
+ */
+public interface RenkoListener {
+
+	/**
+	 * A renko is closed, same OHLCV as the closed ones of RenkoWS.renkoAnimate(mode).
+	 * Gaps call it once for each brick, in order.
+	 */
+	void onBrickClosed(RenkoMode mode, OHLCV brick);
+
+	/**
+	 * The forming renko after each price, same as the last OHLCV of RenkoWS.renkoAnimate(mode). <br>
+	 * Only called if the listener was registered with 'formingUpdates'.
+	 */
+	default void onFormingUpdate(RenkoMode mode, OHLCV formingRenko) {
+	}
+}
@@ -0,0 +1,106 @@
+package renkodf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import renkodf.wrappers.OHLCV;
+
+/**
+ * RenkoListener(s) of a RenkoWS/RenkoWSModified. <br>
+ * Each registration converts the new bricks of its own mode as they are added,
+ * so notifying costs O(1) per brick and nothing when there are no listeners.
+ */
+class RenkoListeners {
+
+	private static class Registration {
+		final RenkoMode mode;
+		final RenkoListener listener;
+		final boolean formingUpdates;
+		final RenkoConverter converter;
+		OHLCV lastClosed;
+
+		Registration(RenkoMode mode, RenkoListener listener, boolean formingUpdates) {
+			this.mode = mode;
+			this.listener = listener;
+			this.formingUpdates = formingUpdates;
+			this.converter = new RenkoConverter(mode);
+		}
+	}
+
+	private final List<Registration> registrations = new ArrayList<>();
+	private int formingListeners = 0;
+
+	/**
+	 * The bricks already in the builder are converted without being notified.
+	 */
+	void add(RenkoMode mode, RenkoListener listener, boolean formingUpdates, BrickBuilder builder) {
+		Registration registration = new Registration(mode, listener, formingUpdates);
+		BrickStore store = builder.getStore();
+		for (int i = 0; i < store.size(); i++) {
+			OHLCV closed = registration.converter.convertNext(store, i, builder.getBrickSize());
+			if (closed != null) {
+				registration.lastClosed = closed;
+			}
+		}
+		registrations.add(registration);
+		if (formingUpdates) {
+			formingListeners++;
+		}
+	}
+
+	/**
+	 * @return "true" if the listener was registered (for any mode).
+	 */
+	boolean remove(RenkoListener listener) {
+		boolean removed = false;
+		for (int i = registrations.size()-1; i >= 0; i--) {
+			Registration registration = registrations.get(i);
+			if (registration.listener == listener) {
+				registrations.remove(i);
+				if (registration.formingUpdates) {
+					formingListeners--;
+				}
+				removed = true;
+			}
+		}
+		return removed;
+	}
+
+	boolean isEmpty() {
+		return registrations.isEmpty();
+	}
+
+	boolean hasFormingListeners() {
+		return formingListeners > 0;
+	}
+
+	/**
+	 * Must be called right after each brick is added, the last one of the store.
+	 */
+	void brickAdded(BrickBuilder builder) {
+		BrickStore store = builder.getStore();
+		int lastIndex = store.size()-1;
+		for (int i = 0; i < registrations.size(); i++) {
+			Registration registration = registrations.get(i);
+			OHLCV closed = registration.converter.convertNext(store, lastIndex, builder.getBrickSize());
+			if (closed != null) {
+				registration.lastClosed = closed;
+				// The forming renko is computed from 'lastClosed', so the listener gets its own copy
+				registration.listener.onBrickClosed(registration.mode, new OHLCV(closed));
+			}
+		}
+	}
+
+	/**
+	 * Must be called after each price, once the bricks were added.
+	 */
+	void priceAdded(BrickBuilder builder, Object date, double price, OHLCV initialOHLCV) {
+		for (int i = 0; i < registrations.size(); i++) {
+			Registration registration = registrations.get(i);
+			if (registration.formingUpdates) {
+				OHLCV formingRenko = registration.converter.forming(registration.lastClosed, builder, date, price, initialOHLCV);
+				registration.listener.onFormingUpdate(registration.mode, formingRenko);
+			}
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package renkodf;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Optional hot-path metrics of Renko, RenkoWS and RenkoWSModified,
+ * given to the engine by setMetrics(metrics). Without it, each hot path only pays a null check.
+ * <ul>
+ * 	<li>ticks: prices given to the engine.</li>
+ * 	<li>bricks: bricks added (first row excluded).</li>
+ * 	<li>gaps: prices that added more than one brick.</li>
+ * 	<li>reversals: prices that added a brick in the opposite direction of the previous one.</li>
+ * 	<li>addPrices latency: each addPrices/addPrice call of RenkoWS/RenkoWSModified.</li>
+ * 	<li>renkoAnimate latency: each renkoAnimate call, or renkodf for Renko.</li>
+ * </ul>
+ * Not synchronized, the engine thread records while others (e.g. JMX) may read slightly stale values.
+ */
+public final class RenkoMetrics implements RenkoMetricsMXBean {
+
+	private long ticks;
+	private long bricks;
+	private long gaps;
+	private long reversals;
+	private long startNanos = System.nanoTime();
+
+	private final LatencyHistogram addPricesLatency;
+	private final LatencyHistogram renkoAnimateLatency;
+
+	public RenkoMetrics() {
+		addPricesLatency = new LatencyHistogram();
+		renkoAnimateLatency = new LatencyHistogram();
+	}
+
+	private RenkoMetrics(RenkoMetrics other) {
+		ticks = other.ticks;
+		bricks = other.bricks;
+		gaps = other.gaps;
+		reversals = other.reversals;
+		startNanos = other.startNanos;
+		addPricesLatency = other.addPricesLatency.copy();
+		renkoAnimateLatency = other.renkoAnimateLatency.copy();
+	}
+
+	/**
+	 * @return Copy of the current values, not updated by the engine.
+	 */
+	public RenkoMetrics snapshot() {
+		return new RenkoMetrics(this);
+	}
+
+	void onTick(int newBricks, boolean reversal) {
+		ticks++;
+		if (newBricks > 0) {
+			bricks += newBricks;
+			if (newBricks > 1) {
+				gaps++;
+			}
+			if (reversal) {
+				reversals++;
+			}
+		}
+	}
+
+	void onQuietTicks(int quietTicks) {
+		ticks += quietTicks;
+	}
+
+	void recordAddPrices(long nanos) {
+		addPricesLatency.record(nanos);
+	}
+
+	void recordRenkoAnimate(long nanos) {
+		renkoAnimateLatency.record(nanos);
+	}
+
+	/**
+	 * Registers this instance in the platform MBeanServer as "renkodf:type=RenkoMetrics,name={name}".
+	 */
+	public ObjectName registerMBean(String name) throws JMException {
+		ObjectName objectName = new ObjectName("renkodf:type=RenkoMetrics,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		return objectName;
+	}
+
+	/**
+	 * @return Copy of the latency histogram of addPrices.
+	 */
+	public LatencyHistogram getAddPricesLatency() {
+		return addPricesLatency.copy();
+	}
+	/**
+	 * @return Copy of the latency histogram of renkoAnimate (renkodf for Renko).
+	 */
+	public LatencyHistogram getRenkoAnimateLatency() {
+		return renkoAnimateLatency.copy();
+	}
+
+	@Override
+	public long getTicks() {
+		return ticks;
+	}
+	@Override
+	public long getBricks() {
+		return bricks;
+	}
+	@Override
+	public long getGaps() {
+		return gaps;
+	}
+	@Override
+	public long getReversals() {
+		return reversals;
+	}
+
+	/**
+	 * Since the creation or the last reset.
+	 */
+	@Override
+	public double getTicksPerSecond() {
+		return perSecond(ticks);
+	}
+	/**
+	 * Since the creation or the last reset.
+	 */
+	@Override
+	public double getBricksPerSecond() {
+		return perSecond(bricks);
+	}
+
+	private double perSecond(long value) {
+		long elapsed = System.nanoTime() - startNanos;
+		return elapsed <= 0 ? 0D : value * 1e9 / elapsed;
+	}
+
+	@Override
+	public long getAddPricesCount() {
+		return addPricesLatency.getCount();
+	}
+	@Override
+	public double getAddPricesMeanNanos() {
+		return addPricesLatency.getMean();
+	}
+	@Override
+	public long getAddPricesP50Nanos() {
+		return addPricesLatency.getValueAtPercentile(50);
+	}
+	@Override
+	public long getAddPricesP99Nanos() {
+		return addPricesLatency.getValueAtPercentile(99);
+	}
+	@Override
+	public long getAddPricesMaxNanos() {
+		return addPricesLatency.getMax();
+	}
+
+	@Override
+	public long getRenkoAnimateCount() {
+		return renkoAnimateLatency.getCount();
+	}
+	@Override
+	public double getRenkoAnimateMeanNanos() {
+		return renkoAnimateLatency.getMean();
+	}
+	@Override
+	public long getRenkoAnimateP50Nanos() {
+		return renkoAnimateLatency.getValueAtPercentile(50);
+	}
+	@Override
+	public long getRenkoAnimateP99Nanos() {
+		return renkoAnimateLatency.getValueAtPercentile(99);
+	}
+	@Override
+	public long getRenkoAnimateMaxNanos() {
+		return renkoAnimateLatency.getMax();
+	}
+
+	@Override
+	public void reset() {
+		ticks = 0;
+		bricks = 0;
+		gaps = 0;
+		reversals = 0;
+		startNanos = System.nanoTime();
+		addPricesLatency.reset();
+		renkoAnimateLatency.reset();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ticks=%d, bricks=%d, gaps=%d, reversals=%d, addPrices=[%s], renkoAnimate=[%s]",
+				ticks, bricks, gaps, reversals, addPricesLatency, renkoAnimateLatency);
+	}
+}
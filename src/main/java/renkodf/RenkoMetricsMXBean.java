@@ -0,0 +1,29 @@
+package renkodf;
+
+/**
+ * JMX view of {@link RenkoMetrics}, see {@link RenkoMetrics#registerMBean(String)}.
+ */
+public interface RenkoMetricsMXBean {
+
+	long getTicks();
+	long getBricks();
+	long getGaps();
+	long getReversals();
+
+	double getTicksPerSecond();
+	double getBricksPerSecond();
+
+	long getAddPricesCount();
+	double getAddPricesMeanNanos();
+	long getAddPricesP50Nanos();
+	long getAddPricesP99Nanos();
+	long getAddPricesMaxNanos();
+
+	long getRenkoAnimateCount();
+	double getRenkoAnimateMeanNanos();
+	long getRenkoAnimateP50Nanos();
+	long getRenkoAnimateP99Nanos();
+	long getRenkoAnimateMaxNanos();
+
+	void reset();
+}
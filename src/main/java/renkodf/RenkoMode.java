@@ -0,0 +1,84 @@
+package renkodf;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The methods for building the Renko List, described in the Renko.renkodf(). <br>
+ * Each mode carries the rules used by the OHLCV conversion, so no String is compared per brick.
+ */
+public enum RenkoMode {
+
+	/** Standard Renko. */
+	NORMAL("normal", true, false, false, false),
+	/** Standard Renko with Wicks. */
+	WICKS("wicks", true, false, true, false),
+	/** Same logic of 'wicks' mode but the OPEN will have the same value as the respective wick. */
+	NONGAP("nongap", false, false, true, true),
+	/** 'wicks' only on price reversals. */
+	REVERSE_WICKS("reverse-wicks", true, false, false, false),
+	/** 'nongap' only in price reversals. */
+	REVERSE_NONGAP("reverse-nongap", false, false, false, true),
+	/** fake reverse wicks, where it will have the same value as the Previous Close. */
+	FAKE_R_WICKS("fake-r-wicks", true, true, false, false),
+	/** fake reverse nongap, where it will have the same value as the Previous Close. */
+	FAKE_R_NONGAP("fake-r-nongap", false, true, false, true);
+
+	private static final Map<String, RenkoMode> BY_NAME = new HashMap<>();
+	static {
+		for (RenkoMode mode : values()) {
+			BY_NAME.put(mode.name, mode);
+		}
+	}
+
+	private final String name;
+	private final boolean reverseModeRule;
+	private final boolean fakeReverseModeRule;
+	private final boolean sameDirectionRule;
+	private final boolean nongapRule;
+
+	RenkoMode(String name, boolean reverseModeRule, boolean fakeReverseModeRule, boolean sameDirectionRule, boolean nongapRule) {
+		this.name = name;
+		this.reverseModeRule = reverseModeRule;
+		this.fakeReverseModeRule = fakeReverseModeRule;
+		this.sameDirectionRule = sameDirectionRule;
+		this.nongapRule = nongapRule;
+	}
+
+	/**
+	 * @param name e.g. "wicks", "fake-r-nongap"
+	 * @return null if there is no mode with this name
+	 */
+	public static RenkoMode fromName(String name) {
+		return BY_NAME.get(name);
+	}
+
+	/**
+	 * @return The name used by the String methods and the python version, e.g. "reverse-wicks"
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/** OPEN of a reversal renko is the previous close +/- brick size. */
+	public boolean isReverseModeRule() {
+		return reverseModeRule;
+	}
+	/** Wick of a reversal renko is the previous close of the opposite direction. */
+	public boolean isFakeReverseModeRule() {
+		return fakeReverseModeRule;
+	}
+	/** Renkos in the same direction of the previous one have wicks. */
+	public boolean isSameDirectionRule() {
+		return sameDirectionRule;
+	}
+	/** OPEN has the same value as the respective wick. */
+	public boolean isNongapRule() {
+		return nongapRule;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -1,13 +1,21 @@
 package renkodf;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+import renkodf.sources.TickSource;
 import renkodf.wrappers.OHLCV;
 import renkodf.wrappers.RSD;
 /**
@@ -15,20 +23,20 @@ import renkodf.wrappers.RSD;
  */
 public class RenkoWS {
 
-	private List<RSD> rsd = new ArrayList<>();
-	private Double brickSize;
+	private final BrickBuilder builder;
+	private final int maxBricks;
 	
     private Object wsDate;
-    private Double wsPrice;
+    private long wsTime = BrickStore.NO_TIME;
+    private double wsPrice;
     private OHLCV wsInitialOHLCV;
     
-	private Double wickMinInLoop;
-	private Double wickMaxInLoop;
-	private Double volumeInLoop;
+	private final Map<RenkoMode, RenkoConverter> converters = new EnumMap<>(RenkoMode.class);
+	
+	private final RenkoListeners listeners = new RenkoListeners();
+	private RenkoMetrics metrics;
 	
 	private final Logger logger = Logger.getLogger(getClass().getName());
-	private static final List<String> MODE_LIST = List.of("normal","wicks", "nongap",
-			"reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap");
 	/**
 	 * 
 	 * <h3>Usage</h3>
@@ -47,34 +55,153 @@ public class RenkoWS {
 	 * @param brickSize Cannot be less than or equal to 0.00000...
 	 */
 	public RenkoWS(Object date, Double price, Double brickSize) {
+		this(date, price, brickSize, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Same as {@link #RenkoWS(Object, Double, Double)} keeping only the last 'maxBricks' renkos, 
+	 * in a fixed-capacity ring buffer, so the memory stays constant in long-running sessions. <br>
+	 * renkoAnimate returns the last 'maxBricks' closed renkos (copied, O(maxBricks)) with the forming renko,
+	 * and should be called at least once every 'maxBricks' renkos, e.g. after each addPrices. <br>
+	 * Otherwise, or if a single price adds more than 'maxBricks' bricks, the renkos are converted again
+	 * from the oldest kept brick, so there is one closed renko less until the next brick.
+	 * 
+	 * @param date Object
+	 * @param price Double
+	 * @param brickSize Cannot be less than or equal to 0.00000...
+	 * @param maxBricks e.g. 500 for an indicator window
+	 */
+	public RenkoWS(Object date, Double price, Double brickSize, int maxBricks) {
 
-		Double initialPrice = (Math.floor(price/brickSize)) * brickSize;
 		// Renko Single Data
-		rsd.add(new RSD(date, initialPrice, 0D, initialPrice, 1D));
+		this.maxBricks = checkMaxBricks(maxBricks);
+		builder = new BrickBuilder(new BrickStore(maxBricks), brickSize);
+		builder.init(BrickStore.NO_INDEX, date, price);
 
-		this.brickSize = brickSize;
 		wsDate = date;
 		wsPrice = price;
 		wsInitialOHLCV = new OHLCV(date, price);
-		
-        wickMinInLoop = initialPrice;
-        wickMaxInLoop = initialPrice;
-        volumeInLoop = 1D;
 	}
 	
+	/**
+	 * Same as {@link #RenkoWS(Object, Double, Double)} with primitive time/price,
+	 * to be used along with {@link #addPrice(long, double)}.
+	 * 
+	 * @param epochNanos long
+	 * @param price double
+	 * @param brickSize Cannot be less than or equal to 0.00000...
+	 */
+	public RenkoWS(long epochNanos, double price, double brickSize) {
+		this(epochNanos, price, brickSize, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Same as {@link #RenkoWS(long, double, double)} keeping only the last 'maxBricks' renkos,
+	 * see {@link #RenkoWS(Object, Double, Double, int)}.
+	 */
+	public RenkoWS(long epochNanos, double price, double brickSize, int maxBricks) {
+
+		// Renko Single Data
+		this.maxBricks = checkMaxBricks(maxBricks);
+		builder = new BrickBuilder(new BrickStore(maxBricks), brickSize);
+		builder.init(BrickStore.NO_INDEX, epochNanos, null, price);
+
+		wsTime = epochNanos;
+		wsPrice = price;
+		wsInitialOHLCV = new OHLCV(epochNanos, price);
+	}
+	
+	/**
+	 * Continue from existing 'Renko Single Data', e.g. Renko.getRSD(null). <br>
+	 * The bricks are copied, so the external list is never modified.
+	 */
 	public RenkoWS(List<RSD> externalRSD, Double brickSize) {
-		rsd = externalRSD;
-		this.brickSize = brickSize;		
+		maxBricks = Integer.MAX_VALUE;
+		builder = new BrickBuilder(new BrickStore(), brickSize);
+		builder.init(externalRSD);
 		RSD lastRenko = externalRSD.get(externalRSD.size()-1);
 		wsDate = lastRenko.getDate();
 		wsPrice = lastRenko.getPrice();
-        wickMinInLoop = lastRenko.getPrice();
-        wickMaxInLoop = lastRenko.getPrice();
-        volumeInLoop = 1D;
+	}
+	
+	private static int checkMaxBricks(int maxBricks) {
+		if (maxBricks < 1) {
+			throw new IllegalArgumentException("maxBricks must be at least 1: " + maxBricks);
+		}
+		return maxBricks;
 	}
 	
 	public List<OHLCV> initialLists(String mode) {
-		return this.renkodf(mode);
+		return initialLists(toRenkoMode(mode));
+	}
+	
+	public List<OHLCV> initialLists(RenkoMode mode) {
+		return new ArrayList<>(new RenkoCopyView(keptRenkos(this.renkodf(mode))));
+	}
+	
+	/**
+	 * Restored from a snapshot, see {@link #restore(InputStream)}.
+	 */
+	private RenkoWS(BrickBuilder builder, int maxBricks) {
+		this.builder = builder;
+		this.maxBricks = maxBricks;
+	}
+	
+	/**
+	 * Writes the full state (bricks, loop wick/volume, last price and initial OHLCV)
+	 * to a compact versioned binary snapshot, so a restarted process doesn't need to replay the ticks. <br>
+	 * A restored instance produces identical subsequent renkos. <br>
+	 * The listeners are not part of the snapshot.
+	 * 
+	 * @param output Flushed but not closed.
+	 * @throws IllegalStateException if a datetime is not Timestamp, Date, Instant or Long (epoch nanoseconds),
+	 * nothing is written to the output.
+	 */
+	public void writeSnapshot(OutputStream output) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(maxBricks);
+		builder.write(out);
+		Snapshots.writeDate(out, wsDate);
+		out.writeLong(wsTime);
+		out.writeDouble(wsPrice);
+		out.writeBoolean(wsInitialOHLCV != null);
+		if (wsInitialOHLCV != null) {
+			Snapshots.writeOHLCV(out, wsInitialOHLCV);
+		}
+		// The converters of an unbounded history are rebuilt from the bricks
+		boolean bounded = maxBricks != Integer.MAX_VALUE;
+		out.writeInt(bounded ? converters.size() : 0);
+		if (bounded) {
+			for (RenkoConverter converter : converters.values()) {
+				converter.write(out);
+			}
+		}
+		Snapshots.write(output, Snapshots.KIND_WS, bytes);
+	}
+	
+	/**
+	 * Restores an instance written by {@link #writeSnapshot(OutputStream)}.
+	 * 
+	 * @param input Read up to the end of the snapshot, not closed.
+	 * @throws IOException if it's not a RenkoWS snapshot or the version is not supported.
+	 */
+	public static RenkoWS restore(InputStream input) throws IOException {
+		DataInputStream in = Snapshots.read(input, Snapshots.KIND_WS);
+		int maxBricks = in.readInt();
+		RenkoWS r = new RenkoWS(BrickBuilder.read(in), maxBricks);
+		r.wsDate = Snapshots.readDate(in);
+		r.wsTime = in.readLong();
+		r.wsPrice = in.readDouble();
+		if (in.readBoolean()) {
+			r.wsInitialOHLCV = Snapshots.readOHLCV(in);
+		}
+		int convertersSize = in.readInt();
+		for (int i = 0; i < convertersSize; i++) {
+			RenkoConverter converter = RenkoConverter.read(in, maxBricks);
+			r.converters.put(converter.getMode(), converter);
+		}
+		return r;
 	}
 	
 	/**
@@ -87,238 +214,321 @@ public class RenkoWS {
 	 * @return <strong>primitive boolean</strong> "true" if there is a new renko, otherwise "false";
 	 */
 	public boolean addPrices(Object date, Double price) {
+		RenkoMetrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0L;
 		wsDate = date;
 		wsPrice = price;
-		
-		wickMinInLoop = price.compareTo(wickMinInLoop) < 0 ? price : wickMinInLoop;
-		wickMaxInLoop = price.compareTo(wickMaxInLoop) > 0 ? price : wickMaxInLoop;
-		volumeInLoop += 1D;
-
-		Double lastPrice = rsd.get(rsd.size()-1).getPrice();
-		Double currentNumberBricks = (price - lastPrice) / brickSize;
-		Double currentDirection = Math.signum(currentNumberBricks);
-		if (currentDirection == 0) {
-        	return false;
-        }  
-		Double lastDirection = rsd.get(rsd.size()-1).getDirection();
-		boolean isSameDirection = (currentDirection > 0 && lastDirection >= 0) || (currentDirection < 0 && lastDirection <= 0);
-        
-		// CURRENT PRICE in same direction of the LAST RENKO
-		Double totalSameBricks = isSameDirection ? currentNumberBricks : 0;
-        /* >= 2 can be a 'GAP' or 'OPPOSITE DIRECTION'.
-         * In both cases we add the current wick/volume to the first brick and 'reset' the value of both, since:
-         * If it's a GAP: 
-		 *	- The following bricks after first brick will be 'artificial' since the price has 'skipped' that price region.
-		 *	- (the reason of 'totalSameBricks')
-		 * If it's a OPPOSITE DIRECTION:
-		 *	- Only the first brick will be kept. (the reason of '2' multiply) 
-		 */
-        if (!isSameDirection && Math.abs(currentNumberBricks) >= 2) {
-        	addBrickLoop(date, 2, currentDirection, currentNumberBricks);
-        	totalSameBricks =  currentNumberBricks - (2 * currentDirection);
-        }
-        
-        // Add all bricks in the same direction
-        for (int noUse = 0; noUse < Math.abs(totalSameBricks.intValue()); noUse++) {
-        	addBrickLoop(date, 1, currentDirection, currentNumberBricks);
+		boolean changed = builder.addPrice(BrickStore.NO_INDEX, date, price);
+		if (listeners.hasFormingListeners()) {
+			listeners.priceAdded(builder, date, price, wsInitialOHLCV);
 		}
-
-        return true;
+		if (m != null) {
+			m.recordAddPrices(System.nanoTime() - start);
+		}
+		return changed;
 	}
 	
-	private void addBrickLoop(Object date, Integer renkoMultiply,  Double currentDirection, Double currentNumberBricks) {
-		
-		// Need update value because of 'same direction' inner loop
-		Double lastPrice = rsd.get(rsd.size()-1).getPrice();
-        Double renkoPrice = lastPrice + (currentDirection * renkoMultiply * brickSize);
-        Double wick = currentNumberBricks > 0 ? wickMinInLoop  : wickMaxInLoop;
-        
-        rsd.add(new RSD(date, renkoPrice, currentDirection, wick, volumeInLoop));
-        
-        // Reset
-        volumeInLoop = 1D;
-        wickMinInLoop = currentNumberBricks > 0 ? renkoPrice : wickMinInLoop;
-        wickMaxInLoop = currentNumberBricks < 0 ? renkoPrice : wickMaxInLoop;
+	/**
+	 * Same as {@link #addPrices(Object, Double)} with primitive time/price. <br>
+	 * No objects are created unless a new renko is added,
+	 * the datetime of the OHLCV will be the epoch nanoseconds (Long).
+	 * 
+	 * @param epochNanos long
+	 * @param price double
+	 * @return <strong>primitive boolean</strong> "true" if there is a new renko, otherwise "false";
+	 */
+	public boolean addPrice(long epochNanos, double price) {
+		RenkoMetrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0L;
+		wsDate = null;
+		wsTime = epochNanos;
+		wsPrice = price;
+		boolean changed = builder.addPrice(BrickStore.NO_INDEX, epochNanos, null, price);
+		if (listeners.hasFormingListeners()) {
+			listeners.priceAdded(builder, epochNanos, price, wsInitialOHLCV);
+		}
+		if (m != null) {
+			m.recordAddPrices(System.nanoTime() - start);
+		}
+		return changed;
 	}
 	
 	/**
-	 * Transforms 'Renko Single Data' into OHLCV List.
-	 * @param mode
-	 * @return
+	 * Enables the hot-path metrics (ticks, bricks, gaps, reversals, addPrices/renkoAnimate latency).
+	 * @param metrics null to disable them, the same instance can be shared by engines of the same thread.
 	 */
-	private List<OHLCV> renkodf(String mode) {
-		
-		String msg = String.format("Mode: \"%s\" does not exist, using \"normal\" instead", mode);
-		if (!MODE_LIST.contains(mode)) {
-			logger.log(Level.WARNING, msg);
-			mode = MODE_LIST.get(0);
+	public void setMetrics(RenkoMetrics metrics) {
+		this.metrics = metrics;
+		builder.setMetrics(metrics);
+	}
+	
+	/**
+	 * @return null if disabled.
+	 */
+	public RenkoMetrics getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Same as {@link #addListener(RenkoMode, RenkoListener, boolean)} without forming updates.
+	 */
+	public void addListener(RenkoMode mode, RenkoListener listener) {
+		addListener(mode, listener, false);
+	}
+	
+	/**
+	 * Notifies the listener of each renko closed from now on, instead of calling renkoAnimate(mode) after every price.
+	 * 
+	 * @param mode The renko-mode of the given OHLCV, the same listener can be added for several modes.
+	 * @param listener RenkoListener
+	 * @param formingUpdates "true" to also call onFormingUpdate after every price.
+	 */
+	public void addListener(RenkoMode mode, RenkoListener listener, boolean formingUpdates) {
+		if (listeners.isEmpty()) {
+			builder.setBrickHook(() -> listeners.brickAdded(builder));
 		}
-
-		List<OHLCV> renkoList = new ArrayList<>(rsd.size());
-
-        boolean reverseModeRule = Set.of("normal","wicks","reverse-wicks","fake-r-wicks").contains(mode);
-        boolean fakeReverseModeRule = Set.of("fake-r-nongap", "fake-r-wicks").contains(mode);
-        boolean sameDirectionRule = Set.of("wicks","nongap").contains(mode);
-
-        Double prevDirection = 0D;
-        Double prevClose = 0D;
-		Double prevCloseUP = 0D;
-        Double prevCloseDOWN = 0D;
-        for (int i = 0; i < rsd.size(); i++) {
-
-        	Double price = rsd.get(i).getPrice();
-        	Double direction = rsd.get(i).getDirection();
-        	Object date = rsd.get(i).getDate();
-        	Double wick = rsd.get(i).getWick();
-        	Double volume = rsd.get(i).getVolume();
-        	
-            OHLCV toAdd = new OHLCV(date, price, volume);
-
-            // Current Renko (UP)
-        	if (direction == 1.0) {
-        		
-                toAdd.setHigh(price);
-                // Previous same direction(UP)
-                if (prevDirection == 1) {
-                	toAdd.setOpen(mode.equals("nongap") ? wick : prevClose);
-                	toAdd.setLow(sameDirectionRule ? wick : prevClose);
-                }
-                // Previous reverse direction(DOWN) 
-                else {
-                    if (reverseModeRule) {
-                    	toAdd.setOpen(prevClose + brickSize);
-                    } else if (mode.equals("fake-r-nongap")) {
-                    	toAdd.setOpen(prevCloseDOWN);
-                    } else {
-                    	toAdd.setOpen(wick);
-                    }
-                    if (mode.equals("normal")) {
-                    	toAdd.setLow(prevClose + brickSize);
-                    } else if (fakeReverseModeRule) {
-                    	toAdd.setLow(prevCloseDOWN);
-                    } else {
-                    	toAdd.setLow(wick);
-                    }
-        		}
-                
-                renkoList.add(toAdd);
-                prevCloseUP = price;
-        	}
-            // Current Renko (DOWN)
-        	else if (direction == -1) {
-        		
-                toAdd.setLow(price);
-                // Previous same direction(DOWN)
-                if (prevDirection == -1) {
-                	toAdd.setOpen(mode.equals("nongap") ? wick : prevClose);
-                	toAdd.setHigh(sameDirectionRule ? wick : prevClose);
-                }
-                // Previous reverse direction(UP) 
-                else {
-                    if (reverseModeRule) {
-                    	toAdd.setOpen(prevClose - brickSize);
-                    } else if (mode.equals("fake-r-nongap")) {
-                    	toAdd.setOpen(prevCloseUP);
-                    } else {
-                    	toAdd.setOpen(wick);
-                    }
-
-                    if (mode.equals("normal")) {
-                    	toAdd.setHigh(prevClose - brickSize);
-                    } else if (fakeReverseModeRule) {
-                    	toAdd.setHigh(prevCloseUP);
-                    } else {
-                    	toAdd.setHigh(wick);
-                    }
-        		}
-                
-                renkoList.add(toAdd);
-                prevCloseDOWN = price;
-        	}
-
-            prevDirection = direction;
-            prevClose = price;
+		listeners.add(mode, listener, formingUpdates, builder);
+	}
+	
+	/**
+	 * Removes the listener from all modes.
+	 * @return "true" if the listener was registered.
+	 */
+	public boolean removeListener(RenkoListener listener) {
+		boolean removed = listeners.remove(listener);
+		if (listeners.isEmpty()) {
+			builder.setBrickHook(null);
 		}
-
-        // Removing first row
-        if (!renkoList.isEmpty()) {
-        	renkoList.remove(0);
-        }
-
-        return renkoList;
+		return removed;
+	}
+	
+	/**
+	 * Calls {@link #addPrice(long, double)} for each remaining tick of the source.
+	 * 
+	 * @param source Read until the end, the caller is responsible for closing it.
+	 * @return Number of ticks added
+	 */
+	public int addTicks(TickSource source) {
+		int ticks = 0;
+		while (source.next()) {
+			addPrice(source.time(), source.price());
+			ticks++;
+		}
+		return ticks;
+	}
+	
+	/**
+	 * Calls {@link #addPrice(long, double)} for each tick of the arrays, in a tight loop.
+	 * 
+	 * @param times Epoch nanoseconds
+	 * @param prices Same length as 'times'
+	 * @param from First tick, inclusive
+	 * @param to Last tick, exclusive
+	 * @return Number of new renkos
+	 */
+	public int addTicks(long[] times, double[] prices, int from, int to) {
+		BrickBuilder.checkTicksRange(times, prices, from, to);
+		BrickStore store = builder.getStore();
+		long added = store.getAddedCount();
+		for (int i = from; i < to; i++) {
+			addPrice(times[i], prices[i]);
+		}
+		return (int) (store.getAddedCount() - added);
+	}
+	
+	/**
+	 * Same as {@link #addTicks(long[], double[], int, int)} with the remaining ticks of both buffers,
+	 * their positions are moved to the limit.
+	 * 
+	 * @return Number of new renkos
+	 */
+	public int addTicks(LongBuffer times, DoubleBuffer prices) {
+		int count = BrickBuilder.checkTicksRemaining(times, prices);
+		BrickStore store = builder.getStore();
+		long added = store.getAddedCount();
+		int timesFrom = times.position();
+		int pricesFrom = prices.position();
+		for (int i = 0; i < count; i++) {
+			addPrice(times.get(timesFrom + i), prices.get(pricesFrom + i));
+		}
+		times.position(timesFrom + count);
+		prices.position(pricesFrom + count);
+		return (int) (store.getAddedCount() - added);
+	}
+	
+	/**
+	 * Columnar 'Renko Single Data', read-only.
+	 */
+	public BrickStore getBrickStore() {
+		return builder.getStore();
+	}
+	
+	/**
+	 * 'Renko Single Data' [fromIndex, toIndex) as a read-only view of the brick store, nothing is copied. <br>
+	 * When bounded, index 0 is the oldest brick kept, so the view is shifted by the next bricks.
+	 * @throws IndexOutOfBoundsException if the range is out of the kept bricks
+	 */
+	public List<RSD> bricks(int fromIndex, int toIndex) {
+		return Ranges.range(builder.getStore().asRSDList(), fromIndex, toIndex);
+	}
+	
+	/**
+	 * The last 'n' kept bricks (all if there are fewer) as a read-only view of the brick store, nothing is copied.
+	 * @throws IllegalArgumentException if n is negative
+	 */
+	public List<RSD> lastBricks(int n) {
+		return Ranges.last(builder.getStore().asRSDList(), n);
+	}
+	
+	/**
+	 * Bricks with time in [startTime, endTime) as a read-only view of the brick store, found by binary search.
+	 * @param startTime Epoch nanoseconds, inclusive
+	 * @param endTime Epoch nanoseconds, exclusive
+	 * @throws IllegalStateException if a brick has no time, see {@link BrickStore#indexAtOrAfter(long)}
+	 */
+	public List<RSD> bricksBetween(long startTime, long endTime) {
+		BrickStore store = builder.getStore();
+		int fromIndex = store.indexAtOrAfter(startTime);
+		return Ranges.range(store.asRSDList(), fromIndex, Math.max(fromIndex, store.indexAtOrAfter(endTime)));
+	}
+	
+	/**
+	 * The last brick at or before 'time', found by binary search.
+	 * @param time Epoch nanoseconds
+	 * @return null if all bricks are after 'time'
+	 * @throws IllegalStateException if a brick has no time, see {@link BrickStore#indexAtOrAfter(long)}
+	 */
+	public RSD brickAt(long time) {
+		BrickStore store = builder.getStore();
+		int index = store.indexAfter(time) - 1;
+		return index >= 0 ? store.getRSD(index) : null;
+	}
+	
+	/**
+	 * Closed renkos [fromIndex, toIndex) of {@link #renkoAnimate(RenkoMode)} (without the forming renko)
+	 * as a read-only view, the list is not copied but each renko is copied at every access. <br>
+	 * Only the bricks added since the last call of the same mode are converted.
+	 * The view is valid until the next call that converts this mode (renkoAnimate, columns, renkos, lastRenkos).
+	 * @throws IndexOutOfBoundsException if the range is out of the closed renkos
+	 */
+	public List<OHLCV> renkos(RenkoMode mode, int fromIndex, int toIndex) {
+		return new RenkoCopyView(Ranges.range(keptRenkos(renkodf(mode)), fromIndex, toIndex));
+	}
+	
+	/**
+	 * The last 'n' closed renkos (all if there are fewer), same as {@link #renkos(RenkoMode, int, int)}.
+	 * @throws IllegalArgumentException if n is negative
+	 */
+	public List<OHLCV> lastRenkos(RenkoMode mode, int n) {
+		return new RenkoCopyView(Ranges.last(keptRenkos(renkodf(mode)), n));
+	}
+	
+	/**
+	 * Transforms 'Renko Single Data' into OHLCV List. <br>
+	 * Only the bricks added since the last call of the same mode are converted.
+	 * @param mode
+	 * @return Closed renkos, this list is kept and updated by the next calls.
+	 */
+	private List<OHLCV> renkodf(RenkoMode mode) {
+		RenkoConverter converter = converters.computeIfAbsent(mode, this::newConverter);
+		return converter.update(builder.getStore(), builder.getBrickSize());
+	}
+	
+	private RenkoConverter newConverter(RenkoMode mode) {
+		return new RenkoConverter(mode, maxBricks);
+	}
+	
+	/**
+	 * @return The last 'maxBricks' closed renkos, the same list if unbounded.
+	 */
+	private List<OHLCV> keptRenkos(List<OHLCV> renkodf) {
+		int size = renkodf.size();
+		return size > maxBricks ? renkodf.subList(size - maxBricks, size) : renkodf;
+	}
+	
+	private RenkoMode toRenkoMode(String mode) {
+		RenkoMode renkoMode = RenkoMode.fromName(mode);
+		if (renkoMode == null) {
+			logger.log(Level.WARNING, String.format("Mode: \"%s\" does not exist, using \"normal\" instead", mode));
+			renkoMode = RenkoMode.NORMAL;
+		}
+		return renkoMode;
 	}
 	/**
-	 * Should be called after 'RenkoWS.addPrices(date, price)'
+	 * Should be called after 'RenkoWS.addPrices(date, price)' <br>
+	 * The closed renkos are converted once and reused by the next calls,
+	 * the returned list is only copied if the caller modifies it, and each renko at its first access.
 	 * 
 	 * @param mode The method for building the Renko List, described in the Renko.renkodf().
 	 * @return List of OHLCV with Forming Renko
 	 */
 	public List<OHLCV> renkoAnimate(String mode) {
+		return renkoAnimate(toRenkoMode(mode));
+	}
+	
+	/**
+	 * Same as {@link #renkoAnimate(String)} without parsing the mode.
+	 * 
+	 * @param mode RenkoMode
+	 * @return List of OHLCV with Forming Renko
+	 */
+	public List<OHLCV> renkoAnimate(RenkoMode mode) {
+		RenkoMetrics m = metrics;
+		if (m == null) {
+			return animate(mode);
+		}
+		long start = System.nanoTime();
+		List<OHLCV> renkoList = animate(mode);
+		m.recordRenkoAnimate(System.nanoTime() - start);
+		return renkoList;
+	}
+	
+	private List<OHLCV> animate(RenkoMode mode) {
 		
-		List<OHLCV> renkodf = renkodf(mode);
-		List<OHLCV> renkoList = new ArrayList<>(rsd.size() + 1);
-		
-		renkoList.add(new OHLCV(wsDate, wsPrice, volumeInLoop));
+		RenkoConverter converter = converters.computeIfAbsent(mode, this::newConverter);
+		List<OHLCV> renkodf = converter.update(builder.getStore(), builder.getBrickSize());
 
-		if (renkodf.isEmpty()) {			
-			renkoList.set(0, wsInitialOHLCV);
-			
-			OHLCV toAdd = new OHLCV(wsDate, wsPrice, volumeInLoop);
-			toAdd.setOpen(wsInitialOHLCV.getClose());
-			toAdd.setHigh(wickMaxInLoop);
-			toAdd.setLow(wickMinInLoop);
-			
-			renkoList.add(toAdd);
-            return renkoList;
+		if (renkodf.isEmpty()) {
+			List<OHLCV> renkoList = new ArrayList<>(2);
+			renkoList.add(new OHLCV(wsInitialOHLCV));
+			renkoList.add(converter.forming(null, builder, getWsDate(), wsPrice, wsInitialOHLCV));
+			return renkoList;
 		}
-
-        Integer lastIndex = renkoList.size()-1;
-		// Forming wick
-		renkoList.get(lastIndex).setHigh(
-				!mode.equals(MODE_LIST.get(0)) ? wickMaxInLoop : wsPrice);
-		renkoList.get(lastIndex).setLow(
-				!mode.equals(MODE_LIST.get(0)) ? wickMinInLoop : wsPrice);
+		OHLCV lastRenko = renkodf.get(renkodf.size()-1);
+		OHLCV formingRenko = converter.forming(lastRenko, builder, getWsDate(), wsPrice, wsInitialOHLCV);
+		if (maxBricks != Integer.MAX_VALUE) {
+			// The converter trims its list later on, so the last bricks are copied
+			return new RenkoAnimateList(new ArrayList<>(keptRenkos(renkodf)), formingRenko);
+		}
+		return new RenkoAnimateList(renkodf, formingRenko);
+	}
+	
+	/**
+	 * Same renkos of {@link #renkoAnimate(RenkoMode)} as primitive columns, for chart consumers. <br>
+	 * Only the bricks closed since the last call are converted and appended, then the forming renko is updated,
+	 * so no series is copied. Unlike renkoAnimate, the initial price is not included when there is no closed renko.
+	 * When bounded, only the last 'maxBricks' closed renkos are included, same as renkoAnimate.
+	 * 
+	 * @param mode RenkoMode
+	 * @return Columns of the closed renkos followed by the forming renko, updated by the next calls of the same mode.
+	 */
+	public RenkoColumns columns(RenkoMode mode) {
+		RenkoConverter converter = converters.computeIfAbsent(mode, this::newConverter);
+		List<OHLCV> renkodf = converter.update(builder.getStore(), builder.getBrickSize());
+		OHLCV lastRenko = renkodf.isEmpty() ? null : renkodf.get(renkodf.size()-1);
+		OHLCV formingRenko = converter.forming(lastRenko, builder, getWsDate(), wsPrice, wsInitialOHLCV);
 		
-        boolean nongapRule = Set.of("nongap", "reverse-nongap", "fake-r-nongap").contains(mode);
-        
-        Double lastRenkoClose = renkodf.get(renkodf.size()-1).getClose();
-        Double lastRenkoOpen = renkodf.get(renkodf.size()-1).getOpen();
-        
-        // Last Renko (UP)
-        if (lastRenkoClose > lastRenkoOpen) {
-            if (wsPrice > lastRenkoClose) {
-                renkoList.get(lastIndex).setOpen(nongapRule ? wickMinInLoop : lastRenkoClose);
-                if (mode.equals(MODE_LIST.get(0))) {
-                    renkoList.get(lastIndex).setLow(lastRenkoClose);
-                }
-            }
-            else {
-            	if (wsPrice < lastRenkoOpen) {
-                    renkoList.get(lastIndex).setOpen(nongapRule ? wickMaxInLoop : lastRenkoOpen);
-                    if (mode.equals(MODE_LIST.get(0))) {
-                        renkoList.get(lastIndex).setHigh(lastRenkoOpen);
-                    }
-            	}
-            }
-        }
-        // Last Renko (DOWN)
-        else {
-            if (wsPrice < lastRenkoClose) {
-                renkoList.get(lastIndex).setOpen(nongapRule ? wickMaxInLoop : lastRenkoClose);
-                if (mode.equals(MODE_LIST.get(0))) {
-                    renkoList.get(lastIndex).setHigh(lastRenkoClose);		
-                }
-            }
-            else {
-                if (wsPrice > lastRenkoOpen) {
-                    renkoList.get(lastIndex).setOpen(nongapRule ? wickMinInLoop : lastRenkoOpen);
-                    if (mode.equals(MODE_LIST.get(0))) {
-                        renkoList.get(lastIndex).setLow(lastRenkoOpen);
-                    }
-                }
-            }
-        }
-        
-        return Stream.of(renkodf, renkoList).flatMap(List::stream).collect(Collectors.toList());
+		RenkoColumns columns = converter.getColumns();
+		// The converter trims its columns later on, like renkoAnimate only the last bricks are visible
+		columns.keepLast(maxBricks);
+		columns.setForming(formingRenko, wsDate != null ? BrickStore.toEpochNanos(wsDate) : wsTime);
+		return columns;
+	}
+	
+	private Object getWsDate() {
+		if (wsDate == null && wsTime != BrickStore.NO_TIME) {
+			return wsTime;
+		}
+		return wsDate;
 	}
 }
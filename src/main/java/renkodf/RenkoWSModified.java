@@ -1,12 +1,15 @@
 package renkodf;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import renkodf.wrappers.OHLCV;
 import renkodf.wrappers.RSD;
@@ -20,23 +23,21 @@ import renkodf.wrappers.RSD;
  * 			method will return only these 2 elements in the list.
  *		</li>
  * 	</ul>
+ *	See RenkoWS(date, price, brickSize, maxBricks) to keep the last N renkos.
  */
 public class RenkoWSModified {
 
-	private List<RSD> rsd = new ArrayList<>();
-	private Double brickSize;
+	private final BrickBuilder builder;
 	
     private Object wsDate;
-    private Double wsPrice;
+    private long wsTime = BrickStore.NO_TIME;
+    private double wsPrice;
     private OHLCV wsInitialOHLCV;
-    
-	private Double wickMinInLoop;
-	private Double wickMaxInLoop;
-	private Double volumeInLoop;
+	
+	private final RenkoListeners listeners = new RenkoListeners();
+	private RenkoMetrics metrics;
 	
 	private final Logger logger = Logger.getLogger(getClass().getName());
-	private static final List<String> MODE_LIST = List.of("normal","wicks", "nongap",
-			"reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap");
 	/**
 	 * 
 	 * <h3>Usage</h3>
@@ -56,19 +57,82 @@ public class RenkoWSModified {
 	 */
 	public RenkoWSModified(Object date, Double price, Double brickSize) {
 
-		Double initialPrice = (Math.floor(price/brickSize)) * brickSize;
-		// Renko Single Data
-		rsd.add(new RSD(date, initialPrice, 0D, initialPrice, 1D));
+		// Renko Single Data, only the last renko and the forming renko
+		builder = new BrickBuilder(new BrickStore(2), brickSize);
+		builder.init(BrickStore.NO_INDEX, date, price);
 
-		this.brickSize = brickSize;
 		wsDate = date;
 		wsPrice = price;
 		wsInitialOHLCV = new OHLCV(date, price);
-		
-        wickMinInLoop = initialPrice;
-        wickMaxInLoop = initialPrice;
-        volumeInLoop = 1D;
 	}
+	
+	/**
+	 * Same as {@link #RenkoWSModified(Object, Double, Double)} with primitive time/price,
+	 * to be used along with {@link #addPrice(long, double)}.
+	 * 
+	 * @param epochNanos long
+	 * @param price double
+	 * @param brickSize Cannot be less than or equal to 0.00000...
+	 */
+	public RenkoWSModified(long epochNanos, double price, double brickSize) {
+
+		// Renko Single Data, only the last renko and the forming renko
+		builder = new BrickBuilder(new BrickStore(2), brickSize);
+		builder.init(BrickStore.NO_INDEX, epochNanos, null, price);
+
+		wsTime = epochNanos;
+		wsPrice = price;
+		wsInitialOHLCV = new OHLCV(epochNanos, price);
+	}
+	/**
+	 * Restored from a snapshot, see {@link #restore(InputStream)}.
+	 */
+	private RenkoWSModified(BrickBuilder builder) {
+		this.builder = builder;
+	}
+	
+	/**
+	 * Writes the full state (bricks, loop wick/volume, last price and initial OHLCV)
+	 * to a compact versioned binary snapshot, so a restarted process doesn't need to replay the ticks. <br>
+	 * A restored instance produces identical subsequent renkos. <br>
+	 * The listeners are not part of the snapshot.
+	 * 
+	 * @param output Flushed but not closed.
+	 * @throws IllegalStateException if a datetime is not Timestamp, Date, Instant or Long (epoch nanoseconds),
+	 * nothing is written to the output.
+	 */
+	public void writeSnapshot(OutputStream output) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		builder.write(out);
+		Snapshots.writeDate(out, wsDate);
+		out.writeLong(wsTime);
+		out.writeDouble(wsPrice);
+		out.writeBoolean(wsInitialOHLCV != null);
+		if (wsInitialOHLCV != null) {
+			Snapshots.writeOHLCV(out, wsInitialOHLCV);
+		}
+		Snapshots.write(output, Snapshots.KIND_WS_MODIFIED, bytes);
+	}
+	
+	/**
+	 * Restores an instance written by {@link #writeSnapshot(OutputStream)}.
+	 * 
+	 * @param input Read up to the end of the snapshot, not closed.
+	 * @throws IOException if it's not a RenkoWSModified snapshot or the version is not supported.
+	 */
+	public static RenkoWSModified restore(InputStream input) throws IOException {
+		DataInputStream in = Snapshots.read(input, Snapshots.KIND_WS_MODIFIED);
+		RenkoWSModified r = new RenkoWSModified(BrickBuilder.read(in));
+		r.wsDate = Snapshots.readDate(in);
+		r.wsTime = in.readLong();
+		r.wsPrice = in.readDouble();
+		if (in.readBoolean()) {
+			r.wsInitialOHLCV = Snapshots.readOHLCV(in);
+		}
+		return r;
+	}
+	
 	/**
 	 * Determine if there are new bricks to add according to the current price relative to the previous renko. <br>
 	 * <strong> Must be called at every price change. </strong> <br>
@@ -79,172 +143,158 @@ public class RenkoWSModified {
 	 * @return <strong>primitive boolean</strong> "true" if there is a new renko, otherwise "false";
 	 */
 	public boolean addPrices(Object date, Double price) {
+		RenkoMetrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0L;
 		wsDate = date;
 		wsPrice = price;
-		
-		wickMinInLoop = price.compareTo(wickMinInLoop) < 0 ? price : wickMinInLoop;
-		wickMaxInLoop = price.compareTo(wickMaxInLoop) > 0 ? price : wickMaxInLoop;
-		volumeInLoop += 1D;
-
-		Double lastPrice = rsd.get(rsd.size()-1).getPrice();
-		Double currentNumberBricks = (price - lastPrice) / brickSize;
-		Double currentDirection = Math.signum(currentNumberBricks);
-		if (currentDirection == 0) {
-        	return false;
-        }  
-		Double lastDirection = rsd.get(rsd.size()-1).getDirection();
-		boolean isSameDirection = (currentDirection > 0 && lastDirection >= 0) || (currentDirection < 0 && lastDirection <= 0);
-        
-		// CURRENT PRICE in same direction of the LAST RENKO
-		Double totalSameBricks = isSameDirection ? currentNumberBricks : 0;
-        /* >= 2 can be a 'GAP' or 'OPPOSITE DIRECTION'.
-         * In both cases we add the current wick/volume to the first brick and 'reset' the value of both, since:
-         * If it's a GAP: 
-		 *	- The following bricks after first brick will be 'artificial' since the price has 'skipped' that price region.
-		 *	- (the reason of 'totalSameBricks')
-		 * If it's a OPPOSITE DIRECTION:
-		 *	- Only the first brick will be kept. (the reason of '2' multiply) 
-		 */
-        if (!isSameDirection && Math.abs(currentNumberBricks) >= 2) {
-        	addBrickLoop(date, 2, currentDirection, currentNumberBricks);
-        	totalSameBricks =  currentNumberBricks - (2 * currentDirection);
-        }
-        
-        // Add all bricks in the same direction
-        for (int noUse = 0; noUse < Math.abs(totalSameBricks.intValue()); noUse++) {
-        	addBrickLoop(date, 1, currentDirection, currentNumberBricks);
+		boolean changed = builder.addPrice(BrickStore.NO_INDEX, date, price);
+		if (listeners.hasFormingListeners()) {
+			listeners.priceAdded(builder, date, price, wsInitialOHLCV);
 		}
-
-        return true;
+		if (m != null) {
+			m.recordAddPrices(System.nanoTime() - start);
+		}
+		return changed;
 	}
 	
-	private void addBrickLoop(Object date, Integer renkoMultiply,  Double currentDirection, Double currentNumberBricks) {
-		
-		// Need update value because of 'same direction' inner loop
-		Double lastPrice = rsd.get(rsd.size()-1).getPrice();
-        Double renkoPrice = lastPrice + (currentDirection * renkoMultiply * brickSize);
-        Double wick = currentNumberBricks > 0 ? wickMinInLoop  : wickMaxInLoop;
-        
-        if (rsd.size() >= 2) {
-            rsd.set(rsd.size()-2, rsd.get(rsd.size()-1));
-            rsd.set(rsd.size()-1, new RSD(date, renkoPrice, currentDirection, wick, volumeInLoop));
-        }
-        else {
-            rsd.add(new RSD(date, renkoPrice, currentDirection, wick, volumeInLoop));
-        }
-        
-        // Reset
-        volumeInLoop = 1D;
-        wickMinInLoop = currentNumberBricks > 0 ? renkoPrice : wickMinInLoop;
-        wickMaxInLoop = currentNumberBricks < 0 ? renkoPrice : wickMaxInLoop;
+	/**
+	 * Same as {@link #addPrices(Object, Double)} with primitive time/price. <br>
+	 * No objects are created unless a new renko is added,
+	 * the datetime of the OHLCV will be the epoch nanoseconds (Long).
+	 * 
+	 * @param epochNanos long
+	 * @param price double
+	 * @return <strong>primitive boolean</strong> "true" if there is a new renko, otherwise "false";
+	 */
+	public boolean addPrice(long epochNanos, double price) {
+		RenkoMetrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0L;
+		wsDate = null;
+		wsTime = epochNanos;
+		wsPrice = price;
+		boolean changed = builder.addPrice(BrickStore.NO_INDEX, epochNanos, null, price);
+		if (listeners.hasFormingListeners()) {
+			listeners.priceAdded(builder, epochNanos, price, wsInitialOHLCV);
+		}
+		if (m != null) {
+			m.recordAddPrices(System.nanoTime() - start);
+		}
+		return changed;
 	}
 	
 	/**
-	 * Transforms 'Renko Single Data' into OHLCV List.
-	 * @param mode
-	 * @return
+	 * Enables the hot-path metrics (ticks, bricks, gaps, reversals, addPrices/renkoAnimate latency).
+	 * @param metrics null to disable them, the same instance can be shared by engines of the same thread.
 	 */
-	private List<OHLCV> renkodf(String mode) {
-		
-		String msg = String.format("Mode: \"%s\" does not exist, using \"normal\" instead", mode);
-		if (!MODE_LIST.contains(mode)) {
-			logger.log(Level.WARNING, msg);
-			mode = MODE_LIST.get(0);
+	public void setMetrics(RenkoMetrics metrics) {
+		this.metrics = metrics;
+		builder.setMetrics(metrics);
+	}
+	
+	/**
+	 * @return null if disabled.
+	 */
+	public RenkoMetrics getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Same as {@link #addListener(RenkoMode, RenkoListener, boolean)} without forming updates.
+	 */
+	public void addListener(RenkoMode mode, RenkoListener listener) {
+		addListener(mode, listener, false);
+	}
+	
+	/**
+	 * Notifies the listener of each renko closed from now on, instead of calling renkoAnimate(mode) after every price.
+	 * 
+	 * @param mode The renko-mode of the given OHLCV, the same listener can be added for several modes.
+	 * @param listener RenkoListener
+	 * @param formingUpdates "true" to also call onFormingUpdate after every price.
+	 */
+	public void addListener(RenkoMode mode, RenkoListener listener, boolean formingUpdates) {
+		if (listeners.isEmpty()) {
+			builder.setBrickHook(() -> listeners.brickAdded(builder));
 		}
-
-		List<OHLCV> renkoList = new ArrayList<>(rsd.size());
-
-        boolean reverseModeRule = Set.of("normal","wicks","reverse-wicks","fake-r-wicks").contains(mode);
-        boolean fakeReverseModeRule = Set.of("fake-r-nongap", "fake-r-wicks").contains(mode);
-        boolean sameDirectionRule = Set.of("wicks","nongap").contains(mode);
-
-        Double prevDirection = 0D;
-        Double prevClose = 0D;
-		Double prevCloseUP = 0D;
-        Double prevCloseDOWN = 0D;
-        for (int i = 0; i < rsd.size(); i++) {
-
-        	Double price = rsd.get(i).getPrice();
-        	Double direction = rsd.get(i).getDirection();
-        	Object date = rsd.get(i).getDate();
-        	Double wick = rsd.get(i).getWick();
-        	Double volume = rsd.get(i).getVolume();
-        	
-            OHLCV toAdd = new OHLCV(date, price, volume);
-
-            // Current Renko (UP)
-        	if (direction == 1.0) {
-        		
-                toAdd.setHigh(price);
-                // Previous same direction(UP)
-                if (prevDirection == 1) {
-                	toAdd.setOpen(mode.equals("nongap") ? wick : prevClose);
-                	toAdd.setLow(sameDirectionRule ? wick : prevClose);
-                }
-                // Previous reverse direction(DOWN) 
-                else {
-                    if (reverseModeRule) {
-                    	toAdd.setOpen(prevClose + brickSize);
-                    } else if (mode.equals("fake-r-nongap")) {
-                    	toAdd.setOpen(prevCloseDOWN);
-                    } else {
-                    	toAdd.setOpen(wick);
-                    }
-                    if (mode.equals("normal")) {
-                    	toAdd.setLow(prevClose + brickSize);
-                    } else if (fakeReverseModeRule) {
-                    	toAdd.setLow(prevCloseDOWN);
-                    } else {
-                    	toAdd.setLow(wick);
-                    }
-        		}
-                
-                renkoList.add(toAdd);
-                prevCloseUP = price;
-        	}
-            // Current Renko (DOWN)
-        	else if (direction == -1) {
-        		
-                toAdd.setLow(price);
-                // Previous same direction(DOWN)
-                if (prevDirection == -1) {
-                	toAdd.setOpen(mode.equals("nongap") ? wick : prevClose);
-                	toAdd.setHigh(sameDirectionRule ? wick : prevClose);
-                }
-                // Previous reverse direction(UP) 
-                else {
-                    if (reverseModeRule) {
-                    	toAdd.setOpen(prevClose - brickSize);
-                    } else if (mode.equals("fake-r-nongap")) {
-                    	toAdd.setOpen(prevCloseUP);
-                    } else {
-                    	toAdd.setOpen(wick);
-                    }
-
-                    if (mode.equals("normal")) {
-                    	toAdd.setHigh(prevClose - brickSize);
-                    } else if (fakeReverseModeRule) {
-                    	toAdd.setHigh(prevCloseUP);
-                    } else {
-                    	toAdd.setHigh(wick);
-                    }
-        		}
-                
-                renkoList.add(toAdd);
-                prevCloseDOWN = price;
-        	}
-
-            prevDirection = direction;
-            prevClose = price;
+		listeners.add(mode, listener, formingUpdates, builder);
+	}
+	
+	/**
+	 * Removes the listener from all modes.
+	 * @return "true" if the listener was registered.
+	 */
+	public boolean removeListener(RenkoListener listener) {
+		boolean removed = listeners.remove(listener);
+		if (listeners.isEmpty()) {
+			builder.setBrickHook(null);
 		}
-
-        // Removing first row
-        if (!renkoList.isEmpty()) {
-        	renkoList.remove(0);
-        }
-
-        return renkoList;
+		return removed;
+	}
+	
+	private RenkoMode toRenkoMode(String mode) {
+		RenkoMode renkoMode = RenkoMode.fromName(mode);
+		if (renkoMode == null) {
+			logger.log(Level.WARNING, String.format("Mode: \"%s\" does not exist, using \"normal\" instead", mode));
+			renkoMode = RenkoMode.NORMAL;
+		}
+		return renkoMode;
+	}
+	/**
+	 * 'Renko Single Data' [fromIndex, toIndex) of the kept bricks (up to 2) as a read-only view, nothing is copied.
+	 * @throws IndexOutOfBoundsException if the range is out of the kept bricks
+	 */
+	public List<RSD> bricks(int fromIndex, int toIndex) {
+		return Ranges.range(builder.getStore().asRSDList(), fromIndex, toIndex);
+	}
+	
+	/**
+	 * The last 'n' kept bricks (all if there are fewer) as a read-only view, nothing is copied.
+	 * @throws IllegalArgumentException if n is negative
+	 */
+	public List<RSD> lastBricks(int n) {
+		return Ranges.last(builder.getStore().asRSDList(), n);
+	}
+	
+	/**
+	 * Bricks with time in [startTime, endTime) as a read-only view of the brick store, found by binary search.
+	 * @param startTime Epoch nanoseconds, inclusive
+	 * @param endTime Epoch nanoseconds, exclusive
+	 * @throws IllegalStateException if a brick has no time, see {@link BrickStore#indexAtOrAfter(long)}
+	 */
+	public List<RSD> bricksBetween(long startTime, long endTime) {
+		BrickStore store = builder.getStore();
+		int fromIndex = store.indexAtOrAfter(startTime);
+		return Ranges.range(store.asRSDList(), fromIndex, Math.max(fromIndex, store.indexAtOrAfter(endTime)));
+	}
+	
+	/**
+	 * The last brick at or before 'time', found by binary search.
+	 * @param time Epoch nanoseconds
+	 * @return null if all bricks are after 'time'
+	 * @throws IllegalStateException if a brick has no time, see {@link BrickStore#indexAtOrAfter(long)}
+	 */
+	public RSD brickAt(long time) {
+		BrickStore store = builder.getStore();
+		int index = store.indexAfter(time) - 1;
+		return index >= 0 ? store.getRSD(index) : null;
+	}
+	
+	/**
+	 * Closed renkos [fromIndex, toIndex) of {@link #renkoAnimate(RenkoMode)}, without the forming renko.
+	 * @throws IndexOutOfBoundsException if the range is out of the closed renkos
+	 */
+	public List<OHLCV> renkos(RenkoMode mode, int fromIndex, int toIndex) {
+		return Ranges.range(new RenkoConverter(mode).update(builder.getStore(), builder.getBrickSize()), fromIndex, toIndex);
 	}
+	
+	/**
+	 * The last 'n' closed renkos (all if there are fewer), same as {@link #renkos(RenkoMode, int, int)}.
+	 * @throws IllegalArgumentException if n is negative
+	 */
+	public List<OHLCV> lastRenkos(RenkoMode mode, int n) {
+		return Ranges.last(new RenkoConverter(mode).update(builder.getStore(), builder.getBrickSize()), n);
+	}
+	
 	/**
 	 * Should be called after 'RenkoWS.addPrices(date, price)'
 	 * 
@@ -252,71 +302,47 @@ public class RenkoWSModified {
 	 * @return List of OHLCV with Forming Renko
 	 */
 	public List<OHLCV> renkoAnimate(String mode) {
+		return renkoAnimate(toRenkoMode(mode));
+	}
+	
+	/**
+	 * Same as {@link #renkoAnimate(String)} without parsing the mode.
+	 * 
+	 * @param mode RenkoMode
+	 * @return List of OHLCV with Forming Renko
+	 */
+	public List<OHLCV> renkoAnimate(RenkoMode mode) {
+		RenkoMetrics m = metrics;
+		if (m == null) {
+			return animate(mode);
+		}
+		long start = System.nanoTime();
+		List<OHLCV> renkoList = animate(mode);
+		m.recordRenkoAnimate(System.nanoTime() - start);
+		return renkoList;
+	}
+	
+	private List<OHLCV> animate(RenkoMode mode) {
 		
-		List<OHLCV> renkodf = renkodf(mode);
-		List<OHLCV> renkoList = new ArrayList<>(rsd.size() + 1);
-		
-		renkoList.add(new OHLCV(wsDate, wsPrice, volumeInLoop));
+		RenkoConverter converter = new RenkoConverter(mode);
+		List<OHLCV> renkodf = converter.update(builder.getStore(), builder.getBrickSize());
+		List<OHLCV> renkoList = new ArrayList<>(renkodf.size() + 1);
 
-		if (renkodf.isEmpty()) {			
-			renkoList.set(0, wsInitialOHLCV);
-			
-			OHLCV toAdd = new OHLCV(wsDate, wsPrice, volumeInLoop);
-			toAdd.setOpen(wsInitialOHLCV.getClose());
-			toAdd.setHigh(wickMaxInLoop);
-			toAdd.setLow(wickMinInLoop);
-			
-			renkoList.add(toAdd);
-            return renkoList;
+		if (renkodf.isEmpty()) {
+			renkoList.add(new OHLCV(wsInitialOHLCV));
+			renkoList.add(converter.forming(null, builder, getWsDate(), wsPrice, wsInitialOHLCV));
+			return renkoList;
 		}
-
-        Integer lastIndex = renkoList.size()-1;
-		// Forming wick
-		renkoList.get(lastIndex).setHigh(
-				!mode.equals(MODE_LIST.get(0)) ? wickMaxInLoop : wsPrice);
-		renkoList.get(lastIndex).setLow(
-				!mode.equals(MODE_LIST.get(0)) ? wickMinInLoop : wsPrice);
-		
-        boolean nongapRule = Set.of("nongap", "reverse-nongap", "fake-r-nongap").contains(mode);
-        
-        Double lastRenkoClose = renkodf.get(renkodf.size()-1).getClose();
-        Double lastRenkoOpen = renkodf.get(renkodf.size()-1).getOpen();
-        
-        // Last Renko (UP)
-        if (lastRenkoClose > lastRenkoOpen) {
-            if (wsPrice > lastRenkoClose) {
-                renkoList.get(lastIndex).setOpen(nongapRule ? wickMinInLoop : lastRenkoClose);
-                if (mode.equals(MODE_LIST.get(0))) {
-                    renkoList.get(lastIndex).setLow(lastRenkoClose);
-                }
-            }
-            else {
-            	if (wsPrice < lastRenkoOpen) {
-                    renkoList.get(lastIndex).setOpen(nongapRule ? wickMaxInLoop : lastRenkoOpen);
-                    if (mode.equals(MODE_LIST.get(0))) {
-                        renkoList.get(lastIndex).setHigh(lastRenkoOpen);
-                    }
-            	}
-            }
-        }
-        // Last Renko (DOWN)
-        else {
-            if (wsPrice < lastRenkoClose) {
-                renkoList.get(lastIndex).setOpen(nongapRule ? wickMaxInLoop : lastRenkoClose);
-                if (mode.equals(MODE_LIST.get(0))) {
-                    renkoList.get(lastIndex).setHigh(lastRenkoClose);		
-                }
-            }
-            else {
-                if (wsPrice > lastRenkoOpen) {
-                    renkoList.get(lastIndex).setOpen(nongapRule ? wickMinInLoop : lastRenkoOpen);
-                    if (mode.equals(MODE_LIST.get(0))) {
-                        renkoList.get(lastIndex).setLow(lastRenkoOpen);
-                    }
-                }
-            }
-        }
-        
-        return Stream.of(renkodf, renkoList).flatMap(List::stream).collect(Collectors.toList());
+		OHLCV lastRenko = renkodf.get(renkodf.size()-1);
+		renkoList.addAll(renkodf);
+		renkoList.add(converter.forming(lastRenko, builder, getWsDate(), wsPrice, wsInitialOHLCV));
+		return renkoList;
+	}
+	
+	private Object getWsDate() {
+		if (wsDate == null && wsTime != BrickStore.NO_TIME) {
+			return wsTime;
+		}
+		return wsDate;
 	}
 }
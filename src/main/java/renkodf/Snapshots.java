@@ -0,0 +1,166 @@
+package renkodf;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Date;
+
+import renkodf.wrappers.OHLCV;
+
+/**
+ * Binary snapshot format shared by RenkoWS and RenkoWSModified (big-endian, java.io.DataOutput). <br>
+ * A header (magic, version, kind) and the length of the body, so the body is read from the stream at once. <br>
+ * Datetime Objects are written as epoch nanoseconds along with their type,
+ * only Timestamp, Date, Instant and Long (or null) can be written.
+ */
+final class Snapshots {
+
+	static final int MAGIC = 0x524E4B53;
+	static final short VERSION = 2;
+	static final byte KIND_WS = 0;
+	static final byte KIND_WS_MODIFIED = 1;
+
+	private static final byte DATE_NULL = 0;
+	private static final byte DATE_LONG = 1;
+	private static final byte DATE_TIMESTAMP = 2;
+	private static final byte DATE_DATE = 3;
+	private static final byte DATE_INSTANT = 4;
+
+	private Snapshots() {
+	}
+
+	// Magic, version, kind and body length
+	private static final int HEADER_BYTES = 4 + 2 + 1 + 4;
+
+	/**
+	 * Writes the header and the body, which is written to memory first
+	 * so nothing is written to the output if a datetime can't be written.
+	 * @param output Flushed but not closed.
+	 */
+	static void write(OutputStream output, byte kind, ByteArrayOutputStream bytes) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output, HEADER_BYTES + bytes.size()));
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		out.writeByte(kind);
+		out.writeInt(bytes.size());
+		bytes.writeTo(out);
+		out.flush();
+	}
+
+	/**
+	 * Reads the header and the whole body with two reads of the input,
+	 * so an unbuffered input (e.g. FileInputStream) is not read field by field.
+	 * @param input Read up to the end of the snapshot, not closed.
+	 * @return The body
+	 */
+	static DataInputStream read(InputStream input, byte kind) throws IOException {
+		byte[] header = new byte[HEADER_BYTES];
+		new DataInputStream(input).readFully(header);
+		ByteBuffer buffer = ByteBuffer.wrap(header);
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException("Not a renko snapshot");
+		}
+		short version = buffer.getShort();
+		if (version != VERSION) {
+			throw new IOException("Unsupported renko snapshot version: " + version);
+		}
+		byte snapshotKind = buffer.get();
+		if (snapshotKind != kind) {
+			throw new IOException(String.format("Snapshot of %s, expected %s", kindName(snapshotKind), kindName(kind)));
+		}
+		int length = buffer.getInt();
+		if (length < 0) {
+			throw new IOException("Invalid renko snapshot length: " + length);
+		}
+		byte[] body = new byte[length];
+		new DataInputStream(input).readFully(body);
+		return new DataInputStream(new ByteArrayInputStream(body));
+	}
+
+	private static String kindName(byte kind) {
+		return kind == KIND_WS ? "RenkoWS" : kind == KIND_WS_MODIFIED ? "RenkoWSModified" : "unknown(" + kind + ")";
+	}
+
+	/**
+	 * @throws IllegalStateException if the datetime is not null, Timestamp, Date, Instant or Long,
+	 * since it couldn't be restored.
+	 */
+	static void writeDate(DataOutput out, Object date) throws IOException {
+		if (date == null) {
+			out.writeByte(DATE_NULL);
+			return;
+		}
+		if (date instanceof Timestamp) {
+			out.writeByte(DATE_TIMESTAMP);
+		} else if (date instanceof Date) {
+			out.writeByte(DATE_DATE);
+		} else if (date instanceof Instant) {
+			out.writeByte(DATE_INSTANT);
+		} else if (date instanceof Long) {
+			out.writeByte(DATE_LONG);
+		} else {
+			throw new IllegalStateException("Datetime of type " + date.getClass().getName()
+					+ " cannot be written to a snapshot, it must be Timestamp, Date, Instant or Long (epoch nanoseconds)");
+		}
+		out.writeLong(BrickStore.toEpochNanos(date));
+	}
+
+	static Object readDate(DataInput in) throws IOException {
+		byte type = in.readByte();
+		if (type == DATE_NULL) {
+			return null;
+		}
+		long epochNanos = in.readLong();
+		long seconds = Math.floorDiv(epochNanos, 1_000_000_000L);
+		int nanos = (int) Math.floorMod(epochNanos, 1_000_000_000L);
+		switch (type) {
+			case DATE_LONG:
+				return epochNanos;
+			case DATE_TIMESTAMP:
+				Timestamp timestamp = new Timestamp(seconds * 1000L);
+				timestamp.setNanos(nanos);
+				return timestamp;
+			case DATE_DATE:
+				return new Date(Math.floorDiv(epochNanos, 1_000_000L));
+			case DATE_INSTANT:
+				return Instant.ofEpochSecond(seconds, nanos);
+			default:
+				throw new IOException("Unknown datetime type in snapshot: " + type);
+		}
+	}
+
+	static void writeOHLCV(DataOutput out, OHLCV ohlcv) throws IOException {
+		writeDate(out, ohlcv.getDatetime());
+		writeNullable(out, ohlcv.getOpen());
+		writeNullable(out, ohlcv.getHigh());
+		writeNullable(out, ohlcv.getLow());
+		writeNullable(out, ohlcv.getClose());
+		writeNullable(out, ohlcv.getVolume());
+	}
+
+	static OHLCV readOHLCV(DataInput in) throws IOException {
+		Object date = readDate(in);
+		return new OHLCV(date, readNullable(in), readNullable(in), readNullable(in), readNullable(in), readNullable(in));
+	}
+
+	private static void writeNullable(DataOutput out, Double value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeDouble(value);
+		}
+	}
+
+	private static Double readNullable(DataInput in) throws IOException {
+		return in.readBoolean() ? in.readDouble() : null;
+	}
+}
@@ -0,0 +1,102 @@
+package renkodf;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD scan of the batch Renko (jdk.incubator.vector), finds the first price out of the brick band
+ * while computing the wick of the prices before it, in the same pass. <br>
+ * Only loaded when {@link #isAvailable()}, e.g. the JVM runs with '--add-modules jdk.incubator.vector',
+ * otherwise BrickBuilder keeps its scalar loop. Set the system property 'renkodf.vector' to 'false' to disable it.
+ */
+final class VectorBandScan {
+
+	private static final String MODULE = "jdk.incubator.vector";
+	private static final boolean AVAILABLE = ModuleLayer.boot().findModule(MODULE).isPresent()
+			&& !"false".equalsIgnoreCase(System.getProperty("renkodf.vector"));
+
+	private VectorBandScan() {}
+
+	/**
+	 * Checked without loading any class of the module.
+	 */
+	static boolean isAvailable() {
+		return AVAILABLE;
+	}
+
+	/**
+	 * Same as calling BrickBuilder.addPrice for the ticks [from, to) of the arrays, numbered from 'tickIndex'. <br>
+	 * The prices inside the band only update the wick and the volume, so they are added at once,
+	 * and each price out of the band (or NaN) is given to addPrice, which moves the band.
+	 */
+	static void addTicks(BrickBuilder builder, int tickIndex, long[] times, double[] prices, int from, int to) {
+		double[] wick = new double[2];
+		int i = from;
+		while (i < to) {
+			wick[0] = builder.getWickMinInLoop();
+			wick[1] = builder.getWickMaxInLoop();
+			int crossing = Lanes.quietEnd(prices, i, to, builder.getDownLimit(), builder.getUpLimit(), wick);
+			if (crossing > i) {
+				builder.addQuietTicks(wick[0], wick[1], crossing - i);
+			}
+			if (crossing < to) {
+				builder.addPrice(tickIndex + (crossing - from), times[crossing], null, prices[crossing]);
+			}
+			i = crossing + 1;
+		}
+	}
+
+	/**
+	 * Holds the species, so that nothing of the module is initialized before isAvailable() is checked.
+	 */
+	private static final class Lanes {
+
+		private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+		/**
+		 * @param wick {min, max} of the loop, updated with the prices before the returned index
+		 * @return Index of the first price out of [down, up] or NaN, 'to' if there is none
+		 */
+		static int quietEnd(double[] prices, int from, int to, double down, double up, double[] wick) {
+			int lanes = SPECIES.length();
+			int i = from;
+			if (to - from >= lanes) {
+				DoubleVector upVector = DoubleVector.broadcast(SPECIES, up);
+				DoubleVector downVector = DoubleVector.broadcast(SPECIES, down);
+				// Same comparisons of the scalar loop in each lane, so ties keep the same value
+				DoubleVector minVector = DoubleVector.broadcast(SPECIES, wick[0]);
+				DoubleVector maxVector = DoubleVector.broadcast(SPECIES, wick[1]);
+				int bound = from + SPECIES.loopBound(to - from);
+				for (; i < bound; i += lanes) {
+					DoubleVector price = DoubleVector.fromArray(SPECIES, prices, i);
+					// Inside the band, false for NaN
+					VectorMask<Double> inside = price.compare(VectorOperators.LE, upVector)
+							.and(price.compare(VectorOperators.GE, downVector));
+					if (!inside.allTrue()) {
+						break;
+					}
+					minVector = minVector.blend(price, price.compare(VectorOperators.LT, minVector));
+					maxVector = maxVector.blend(price, price.compare(VectorOperators.GT, maxVector));
+				}
+				for (int lane = 0; lane < lanes; lane++) {
+					double min = minVector.lane(lane);
+					double max = maxVector.lane(lane);
+					wick[0] = min < wick[0] ? min : wick[0];
+					wick[1] = max > wick[1] ? max : wick[1];
+				}
+			}
+			// Tail, or the vector holding the crossing
+			for (; i < to; i++) {
+				double price = prices[i];
+				if (!(price <= up && price >= down)) {
+					return i;
+				}
+				wick[0] = price < wick[0] ? price : wick[0];
+				wick[1] = price > wick[1] ? price : wick[1];
+			}
+			return to;
+		}
+	}
+}
@@ -1,7 +1,6 @@
 package renkodf.examples;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.knowm.xchart.OHLCChart;
 import org.knowm.xchart.OHLCChartBuilder;
@@ -10,6 +9,8 @@ import org.knowm.xchart.style.Styler;
 import org.knowm.xchart.style.Styler.ChartTheme;
 
 import renkodf.Renko;
+import renkodf.RenkoColumns;
+import renkodf.RenkoMode;
 import renkodf.RenkoWS;
 import renkodf.examples.interfaces.ExampleChart;
 import renkodf.wrappers.OHLCV;
@@ -20,6 +21,8 @@ import renkodf.wrappers.OHLCV;
 public class ExternalWSChart implements ExampleChart<OHLCChart> {
 
 	public static final String SERIES_NAME = "series1";
+	// Plotted renkos, so each tick copies a bounded window instead of the whole history
+	private static final int MAX_POINTS = 200;
 
 	private OHLCChart ohlcChart;
 	private final TicksFactory factory = new TicksFactory("US30");
@@ -71,12 +74,15 @@ public class ExternalWSChart implements ExampleChart<OHLCChart> {
 		
 		r = new RenkoWS(rr.getRSD(null), 5D);
 
-		List<OHLCV> initialList = r.initialLists("wicks");
-		ohlcChart.addSeries(SERIES_NAME, null,
-				initialList.stream().map(OHLCV::getOpen).collect(Collectors.toList()),
-				initialList.stream().map(OHLCV::getHigh).collect(Collectors.toList()),
-				initialList.stream().map(OHLCV::getLow).collect(Collectors.toList()),
-				initialList.stream().map(OHLCV::getClose).collect(Collectors.toList()));
+		// Closed renkos only, same as r.initialLists("wicks")
+		RenkoColumns initialColumns = r.columns(RenkoMode.WICKS);
+		int to = initialColumns.closedSize();
+		int from = Math.max(0, to - MAX_POINTS);
+		ohlcChart.addSeries(SERIES_NAME,
+				RenkoColumns.copyRange(initialColumns.open(), from, to),
+				RenkoColumns.copyRange(initialColumns.high(), from, to),
+				RenkoColumns.copyRange(initialColumns.low(), from, to),
+				RenkoColumns.copyRange(initialColumns.close(), from, to));
 		return ohlcChart;
 	}
 
@@ -84,14 +90,17 @@ public class ExternalWSChart implements ExampleChart<OHLCChart> {
 		OHLCV currentTick = ticksLocal.get(index);
 		r.addPrices(currentTick.getDatetime(), currentTick.getClose());
 
-		List<OHLCV> renkoList = r.renkoAnimate("wicks");
+		RenkoColumns renkoColumns = r.columns(RenkoMode.WICKS);
 
-		List<Double> openData = renkoList.stream().map(OHLCV::getOpen).collect(Collectors.toList());
-		List<Double> highData = renkoList.stream().map(OHLCV::getHigh).collect(Collectors.toList());
-		List<Double> lowData = renkoList.stream().map(OHLCV::getLow).collect(Collectors.toList());
-		List<Double> closeData = renkoList.stream().map(OHLCV::getClose).collect(Collectors.toList());
+		// XChart keeps the given arrays and scans all of them at each update, so only the last points are plotted
+		int to = renkoColumns.size();
+		int from = Math.max(0, to - MAX_POINTS);
 
-		ohlcChart.updateOHLCSeries(SERIES_NAME, null, openData, highData, lowData, closeData);
+		ohlcChart.updateOHLCSeries(SERIES_NAME, null,
+				RenkoColumns.copyRange(renkoColumns.open(), from, to),
+				RenkoColumns.copyRange(renkoColumns.high(), from, to),
+				RenkoColumns.copyRange(renkoColumns.low(), from, to),
+				RenkoColumns.copyRange(renkoColumns.close(), from, to));
 	}
 
 	@Override
@@ -1,7 +1,6 @@
 package renkodf.examples;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.knowm.xchart.OHLCChart;
 import org.knowm.xchart.OHLCChartBuilder;
@@ -9,6 +8,8 @@ import org.knowm.xchart.SwingWrapper;
 import org.knowm.xchart.style.Styler;
 import org.knowm.xchart.style.Styler.ChartTheme;
 
+import renkodf.RenkoColumns;
+import renkodf.RenkoMode;
 import renkodf.RenkoWS;
 import renkodf.examples.interfaces.ExampleChart;
 import renkodf.wrappers.OHLCV;
@@ -75,22 +76,17 @@ public class RenkoWSChart implements ExampleChart<OHLCChart> {
 		OHLCV currentTick = ticksLocal.get(index);
 		r.addPrices(currentTick.getDatetime(), currentTick.getClose());
 
-		List<OHLCV> renkoList = r.renkoAnimate("wicks");
-
-		List<Double> openData = renkoList.stream().map(OHLCV::getOpen).collect(Collectors.toList());
-		List<Double> highData = renkoList.stream().map(OHLCV::getHigh).collect(Collectors.toList());
-		List<Double> lowData = renkoList.stream().map(OHLCV::getLow).collect(Collectors.toList());
-		List<Double> closeData = renkoList.stream().map(OHLCV::getClose).collect(Collectors.toList());
+		RenkoColumns renkoColumns = r.columns(RenkoMode.WICKS);
 
 		// Limit the total number of points
-		while (openData.size() > 50) {
-			openData.remove(0);
-			highData.remove(0);
-			lowData.remove(0);
-			closeData.remove(0);
-		}
-
-		ohlcChart.updateOHLCSeries(SERIES_NAME, null, openData, highData, lowData, closeData);
+		int to = renkoColumns.size();
+		int from = Math.max(0, to - 50);
+
+		ohlcChart.updateOHLCSeries(SERIES_NAME, null,
+				RenkoColumns.copyRange(renkoColumns.open(), from, to),
+				RenkoColumns.copyRange(renkoColumns.high(), from, to),
+				RenkoColumns.copyRange(renkoColumns.low(), from, to),
+				RenkoColumns.copyRange(renkoColumns.close(), from, to));
 	}
 
 	@Override
@@ -0,0 +1,138 @@
+package renkodf.sources;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fixed-width binary tick format, read by {@link BinaryTickSource}. <br>
+ * Little-endian, a 32 bytes header followed by one record per tick:
+ * <ul>
+ * 	<li>Header: int magic "RNKT", short version, short flags, long ticks, long records, long time unit (nanoseconds).</li>
+ * 	<li>Plain record (16 bytes): long time (epoch nanoseconds), double price.</li>
+ * 	<li>Delta record (12 bytes): int time delta (time units), double price. <br>
+ * 	When the delta does not fit in an int, a reset record (int {@link Integer#MIN_VALUE}, long time in time units) comes before the tick.</li>
+ * </ul>
+ * <h3>Converter</h3>
+ * <code>java renkodf.sources.BinaryTickFile EURGBP_T1_cT.parquet EURGBP.ticks [deltaUnitNanos]</code>
+ */
+public final class BinaryTickFile {
+
+	static final int MAGIC = 0x524E4B54;
+	static final short VERSION = 1;
+	static final short FLAG_DELTA_TIME = 1;
+	static final int HEADER_SIZE = 32;
+	static final int PLAIN_RECORD_SIZE = 16;
+	static final int DELTA_RECORD_SIZE = 12;
+	static final int RESET_DELTA = Integer.MIN_VALUE;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private BinaryTickFile() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: BinaryTickFile <ticks.parquet> <output> [deltaUnitNanos]");
+			System.exit(1);
+		}
+		long deltaUnitNanos = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+		long ticks = convert(args[0], args[1], deltaUnitNanos);
+		System.out.println(ticks + " ticks written to " + args[1]);
+	}
+
+	/**
+	 * Converts the "datetime"/"bid" columns of a Parquet Ticks file, like the *_T1_cT.parquet ones.
+	 * @param deltaUnitNanos 0 for plain records, otherwise see {@link #write(TickSource, Path, long)}
+	 * @return Number of ticks written
+	 */
+	public static long convert(String parquetPath, String binaryPath, long deltaUnitNanos) throws IOException {
+		try (TickSource source = new ParquetTickSource(parquetPath)) {
+			return write(source, Paths.get(binaryPath), deltaUnitNanos);
+		}
+	}
+
+	/**
+	 * Writes the remaining ticks of the source with plain records.
+	 * @return Number of ticks written
+	 */
+	public static long write(TickSource source, Path path) throws IOException {
+		return write(source, path, 0L);
+	}
+
+	/**
+	 * Writes the remaining ticks of the source.
+	 * @param deltaUnitNanos 0 for plain records, otherwise the time delta unit of the delta records
+	 * (e.g. 1000 for microseconds), every tick time must be a multiple of it.
+	 * @return Number of ticks written
+	 */
+	public static long write(TickSource source, Path path, long deltaUnitNanos) throws IOException {
+		if (deltaUnitNanos < 0) {
+			throw new IllegalArgumentException("deltaUnitNanos cannot be negative: " + deltaUnitNanos);
+		}
+		boolean delta = deltaUnitNanos > 0;
+		long ticks = 0;
+		long records = 0;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			channel.position(HEADER_SIZE);
+
+			long prevUnits = 0;
+			while (source.next()) {
+				if (buffer.remaining() < 2 * PLAIN_RECORD_SIZE) {
+					flush(buffer, channel);
+				}
+				long time = source.time();
+				if (!delta) {
+					buffer.putLong(time);
+				} else {
+					if (time % deltaUnitNanos != 0) {
+						throw new IllegalArgumentException("Tick time " + time + " is not a multiple of " + deltaUnitNanos + " nanoseconds");
+					}
+					long units = time / deltaUnitNanos;
+					long unitsDelta = units - prevUnits;
+					if (ticks == 0 || unitsDelta <= RESET_DELTA || unitsDelta > Integer.MAX_VALUE) {
+						buffer.putInt(RESET_DELTA);
+						buffer.putLong(units);
+						records++;
+						unitsDelta = 0;
+					}
+					buffer.putInt((int) unitsDelta);
+					prevUnits = units;
+				}
+				buffer.putDouble(source.price());
+				ticks++;
+				records++;
+			}
+			flush(buffer, channel);
+
+			buffer.putInt(MAGIC);
+			buffer.putShort(VERSION);
+			buffer.putShort(delta ? FLAG_DELTA_TIME : 0);
+			buffer.putLong(ticks);
+			buffer.putLong(records);
+			buffer.putLong(delta ? deltaUnitNanos : 1L);
+			buffer.flip();
+			long position = 0;
+			while (buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+		}
+		return ticks;
+	}
+
+	private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,126 @@
+package renkodf.sources;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a {@link BinaryTickFile} through memory-mapped windows (up to ~1GB each),
+ * so opening is independent of the file size and no objects are created per tick. <br>
+ * The mapped memory is released by the garbage collector after {@link #close()}.
+ */
+public class BinaryTickSource implements TickSource {
+
+	private static final long MAX_WINDOW_SIZE = 1L << 30;
+
+	private final FileChannel channel;
+	private final long ticks;
+	private final long records;
+	private final long timeUnitNanos;
+	private final boolean delta;
+	private final int recordSize;
+	private final long windowRecords;
+
+	private MappedByteBuffer window;
+	private long mappedRecords = 0;
+
+	private long timeUnits;
+	private double price;
+
+	public BinaryTickSource(String path) throws IOException {
+		this(Paths.get(path));
+	}
+
+	public BinaryTickSource(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(BinaryTickFile.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+				// read the whole header
+			}
+			header.flip();
+			if (header.remaining() < BinaryTickFile.HEADER_SIZE || header.getInt() != BinaryTickFile.MAGIC) {
+				throw new IOException("Not a binary tick file: " + path);
+			}
+			short version = header.getShort();
+			if (version != BinaryTickFile.VERSION) {
+				throw new IOException("Unsupported binary tick file version " + version + ": " + path);
+			}
+			delta = (header.getShort() & BinaryTickFile.FLAG_DELTA_TIME) != 0;
+			ticks = header.getLong();
+			records = header.getLong();
+			timeUnitNanos = header.getLong();
+		} catch (IOException | RuntimeException exception) {
+			channel.close();
+			throw exception;
+		}
+		recordSize = delta ? BinaryTickFile.DELTA_RECORD_SIZE : BinaryTickFile.PLAIN_RECORD_SIZE;
+		windowRecords = MAX_WINDOW_SIZE / recordSize;
+	}
+
+	/**
+	 * @return Number of ticks in the file.
+	 */
+	public long size() {
+		return ticks;
+	}
+
+	@Override
+	public boolean next() {
+		while (true) {
+			if (window == null || !window.hasRemaining()) {
+				if (mappedRecords == records) {
+					return false;
+				}
+				mapNextWindow();
+			}
+			if (!delta) {
+				timeUnits = window.getLong();
+				price = window.getDouble();
+				return true;
+			}
+			int unitsDelta = window.getInt();
+			if (unitsDelta == BinaryTickFile.RESET_DELTA) {
+				timeUnits = window.getLong();
+				continue;
+			}
+			timeUnits += unitsDelta;
+			price = window.getDouble();
+			return true;
+		}
+	}
+
+	private void mapNextWindow() {
+		long count = Math.min(windowRecords, records - mappedRecords);
+		long position = BinaryTickFile.HEADER_SIZE + mappedRecords * recordSize;
+		try {
+			window = channel.map(FileChannel.MapMode.READ_ONLY, position, count * recordSize);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+		window.order(ByteOrder.LITTLE_ENDIAN);
+		mappedRecords += count;
+	}
+
+	@Override
+	public long time() {
+		return timeUnits * timeUnitNanos;
+	}
+
+	@Override
+	public double price() {
+		return price;
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+}
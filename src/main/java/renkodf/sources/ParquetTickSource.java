@@ -0,0 +1,171 @@
+package renkodf.sources;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.DummyRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+
+/**
+ * Streams the time and price columns of a Parquet file as primitives,
+ * one row group in memory at a time, so the file size does not matter. <br>
+ * Rows where the time or the price is null are skipped.
+ * <ul>
+ * 	<li>time: INT64, TIMESTAMP(MILLIS/MICROS/NANOS) or plain epoch nanoseconds.</li>
+ * 	<li>price: DOUBLE or FLOAT.</li>
+ * </ul>
+ */
+public class ParquetTickSource implements TickSource {
+
+	public static final String DEFAULT_TIME_COLUMN = "datetime";
+	public static final String DEFAULT_PRICE_COLUMN = "bid";
+
+	private final ParquetFileReader reader;
+	private final MessageType projection;
+	private final ColumnDescriptor timeDescriptor;
+	private final ColumnDescriptor priceDescriptor;
+	private final long timeToNanos;
+	private final boolean floatPrice;
+
+	private ColumnReader timeReader;
+	private ColumnReader priceReader;
+	private long rowsInGroup = 0;
+
+	private long time;
+	private double price;
+
+	/**
+	 * Ticks from the "datetime" and "bid" columns, like the *_T1_cT.parquet files.
+	 */
+	public ParquetTickSource(String path) throws IOException {
+		this(path, DEFAULT_TIME_COLUMN, DEFAULT_PRICE_COLUMN);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if a column is missing or of another type, the file is closed.
+	 */
+	public ParquetTickSource(String path, String timeColumn, String priceColumn) throws IOException {
+		reader = ParquetFileReader.open(HadoopInputFile.fromPath(new Path(path), new Configuration()));
+		try {
+			MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+			if (!schema.containsField(timeColumn) || !schema.containsField(priceColumn)) {
+				throw new IllegalArgumentException(String.format("Columns \"%s\" and \"%s\" are required: %s", timeColumn, priceColumn, schema));
+			}
+			PrimitiveType timeType = schema.getType(timeColumn).asPrimitiveType();
+			PrimitiveType priceType = schema.getType(priceColumn).asPrimitiveType();
+
+			projection = new MessageType(schema.getName(), timeType, priceType);
+			reader.setRequestedSchema(projection);
+			timeDescriptor = projection.getColumnDescription(new String[] {timeColumn});
+			priceDescriptor = projection.getColumnDescription(new String[] {priceColumn});
+
+			if (timeType.getPrimitiveTypeName() != PrimitiveType.PrimitiveTypeName.INT64) {
+				throw new IllegalArgumentException("Time column must be INT64: " + timeType);
+			}
+			timeToNanos = toNanos(timeType.getLogicalTypeAnnotation());
+			switch (priceType.getPrimitiveTypeName()) {
+				case DOUBLE:
+					floatPrice = false;
+					break;
+				case FLOAT:
+					floatPrice = true;
+					break;
+				default:
+					throw new IllegalArgumentException("Price column must be DOUBLE or FLOAT: " + priceType);
+			}
+		} catch (RuntimeException exception) {
+			// Nothing else would close the file
+			try {
+				reader.close();
+			} catch (IOException closeException) {
+				exception.addSuppressed(closeException);
+			}
+			throw exception;
+		}
+	}
+
+	private static long toNanos(LogicalTypeAnnotation annotation) {
+		if (!(annotation instanceof TimestampLogicalTypeAnnotation)) {
+			return 1L;
+		}
+		switch (((TimestampLogicalTypeAnnotation) annotation).getUnit()) {
+			case MILLIS:
+				return 1_000_000L;
+			case MICROS:
+				return 1_000L;
+			default:
+				return 1L;
+		}
+	}
+
+	@Override
+	public boolean next() {
+		while (true) {
+			if (rowsInGroup == 0 && !nextRowGroup()) {
+				return false;
+			}
+			rowsInGroup--;
+			boolean hasTime = timeReader.getCurrentDefinitionLevel() == timeDescriptor.getMaxDefinitionLevel();
+			boolean hasPrice = priceReader.getCurrentDefinitionLevel() == priceDescriptor.getMaxDefinitionLevel();
+			if (hasTime) {
+				time = timeReader.getLong() * timeToNanos;
+			}
+			if (hasPrice) {
+				price = floatPrice ? priceReader.getFloat() : priceReader.getDouble();
+			}
+			timeReader.consume();
+			priceReader.consume();
+			if (hasTime && hasPrice) {
+				return true;
+			}
+		}
+	}
+
+	private boolean nextRowGroup() {
+		try {
+			PageReadStore pages;
+			do {
+				pages = reader.readNextRowGroup();
+				if (pages == null) {
+					return false;
+				}
+			} while (pages.getRowCount() == 0);
+
+			ColumnReadStoreImpl columns = new ColumnReadStoreImpl(pages,
+					new DummyRecordConverter(projection).getRootConverter(), projection,
+					reader.getFooter().getFileMetaData().getCreatedBy());
+			timeReader = columns.getColumnReader(timeDescriptor);
+			priceReader = columns.getColumnReader(priceDescriptor);
+			rowsInGroup = pages.getRowCount();
+			return true;
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	@Override
+	public long time() {
+		return time;
+	}
+
+	@Override
+	public double price() {
+		return price;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
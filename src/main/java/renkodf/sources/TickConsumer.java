@@ -0,0 +1,10 @@
+package renkodf.sources;
+
+/**
+ * Receives primitive ticks, e.g. <code>renkoWS::addPrice</code>.
+ */
+@FunctionalInterface
+public interface TickConsumer {
+
+	void accept(long epochNanos, double price);
+}
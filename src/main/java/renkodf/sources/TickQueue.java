@@ -0,0 +1,144 @@
+package renkodf.sources;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free single-producer/single-consumer ring of primitive ticks (time + price),
+ * to decouple the I/O thread receiving the ticks from the thread building the renkos. <br>
+ * The slots are preallocated, so neither side creates objects.
+ * <ul>
+ * 	<li>Producer (one thread): {@link #offer(long, double)}</li>
+ * 	<li>Consumer (one thread): {@link #drainTo(TickConsumer, int)}, e.g. <code>queue.drainTo(renkoWS::addPrice, 1024)</code></li>
+ * </ul>
+ */
+public final class TickQueue {
+
+	/**
+	 * What {@link TickQueue#offer(long, double)} does when the queue is full.
+	 */
+	public enum OverflowPolicy {
+		/** The tick is dropped and counted, offer returns "false". */
+		DROP,
+		/** Waits (spin, then yield) until the consumer frees a slot, backpressure on the producer. */
+		BLOCK
+	}
+
+	private static final int MAX_SPINS = 100;
+
+	// Indexes of 'counters', each side on its own cache line (8 longs apart) and away from the other objects
+	// Next slot to read, only written by the consumer
+	private static final int HEAD = 7;
+	// Last seen tail, avoids reading the producer's counter at every tick
+	private static final int TAIL_CACHE = HEAD + 1;
+	// Next slot to write, only written by the producer
+	private static final int TAIL = HEAD + 8;
+	// Last seen head, avoids reading the consumer's counter at every tick
+	private static final int HEAD_CACHE = TAIL + 1;
+
+	private final long[] times;
+	private final double[] prices;
+	private final int mask;
+	private final OverflowPolicy policy;
+
+	private final AtomicLongArray counters = new AtomicLongArray(HEAD_CACHE + 8);
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * @param capacity Rounded up to a power of two.
+	 */
+	public TickQueue(int capacity, OverflowPolicy policy) {
+		if (capacity < 1 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+		}
+		int size = Integer.highestOneBit(capacity);
+		size = size < capacity ? size << 1 : size;
+		times = new long[size];
+		prices = new double[size];
+		mask = size - 1;
+		this.policy = policy;
+	}
+
+	/**
+	 * Publishes a tick, producer thread only.
+	 * @return "false" if the queue is full and the policy is DROP.
+	 */
+	public boolean offer(long epochNanos, double price) {
+		long t = counters.get(TAIL);
+		long headCache = counters.get(HEAD_CACHE);
+		if (t - headCache > mask) {
+			headCache = counters.get(HEAD);
+			int spins = 0;
+			while (t - headCache > mask) {
+				if (policy == OverflowPolicy.DROP) {
+					counters.lazySet(HEAD_CACHE, headCache);
+					dropped.lazySet(dropped.get() + 1);
+					return false;
+				}
+				if (++spins < MAX_SPINS) {
+					Thread.onSpinWait();
+				} else {
+					Thread.yield();
+				}
+				headCache = counters.get(HEAD);
+			}
+			counters.lazySet(HEAD_CACHE, headCache);
+		}
+		int slot = (int) t & mask;
+		times[slot] = epochNanos;
+		prices[slot] = price;
+		// Release: the slot is visible before the new tail
+		counters.lazySet(TAIL, t + 1);
+		return true;
+	}
+
+	/**
+	 * Gives up to 'maxTicks' queued ticks to the consumer, in order, consumer thread only.
+	 * @return Number of ticks drained, 0 if the queue is empty.
+	 * @throws IllegalArgumentException if maxTicks is negative
+	 */
+	public int drainTo(TickConsumer consumer, int maxTicks) {
+		if (maxTicks < 0) {
+			throw new IllegalArgumentException("maxTicks cannot be negative: " + maxTicks);
+		}
+		long h = counters.get(HEAD);
+		long tailCache = counters.get(TAIL_CACHE);
+		if (tailCache - h <= 0) {
+			tailCache = counters.get(TAIL);
+			if (tailCache - h <= 0) {
+				return 0;
+			}
+			counters.lazySet(TAIL_CACHE, tailCache);
+		}
+		int ticks = (int) Math.min(maxTicks, tailCache - h);
+		for (int i = 0; i < ticks; i++) {
+			int slot = (int) (h + i) & mask;
+			consumer.accept(times[slot], prices[slot]);
+		}
+		// Release the slots back to the producer once per batch
+		counters.lazySet(HEAD, h + ticks);
+		return ticks;
+	}
+
+	/**
+	 * @return Number of queued ticks, approximate while both threads are running.
+	 */
+	public int size() {
+		return (int) Math.max(0, counters.get(TAIL) - counters.get(HEAD));
+	}
+
+	public int capacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * @return Number of ticks dropped by the DROP policy.
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	public OverflowPolicy getPolicy() {
+		return policy;
+	}
+}
@@ -0,0 +1,35 @@
+package renkodf.sources;
+
+import java.io.Closeable;
+
+/**
+ * Forward-only cursor of primitive ticks (time + price),
+ * so Ticks data can be given to Renko/RenkoWS without creating one object per tick.
+ * <h3>Usage</h3>
+ * <code>
+ * 	try (TickSource source = new ParquetTickSource(path)) { <br>
+ * 	&nbsp; while (source.next()) { <br>
+ * 	&nbsp;&nbsp; renkoWS.addPrice(source.time(), source.price()); <br>
+ * 	&nbsp; } <br>
+ * 	}
+ * </code>
+ */
+public interface TickSource extends Closeable {
+
+	/**
+	 * Moves to the next tick.
+	 * @return "false" if there are no more ticks.
+	 * @throws java.io.UncheckedIOException if the underlying data cannot be read.
+	 */
+	boolean next();
+
+	/**
+	 * @return Epoch nanoseconds of the current tick.
+	 */
+	long time();
+
+	/**
+	 * @return Price of the current tick.
+	 */
+	double price();
+}
@@ -39,6 +39,12 @@ public class OHLCV {
 		this.close = close;
 		this.volume = volume;
 	}
+	/**
+	 * Copy of 'other', e.g. to modify a renko without changing the engine's one.
+	 */
+	public OHLCV(OHLCV other) {
+		this(other.datetime, other.open, other.high, other.low, other.close, other.volume);
+	}
 	
 	public Object getDatetime() {
 		return datetime;
@@ -1,28 +1,54 @@
 package renkodf;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import renkodf.wrappers.OHLCV;
+import renkodf.wrappers.RSD;
 
 @TestInstance(Lifecycle.PER_CLASS)
 class EURGBP_Test {
 	
 	private static final DataFactory factory = new DataFactory("EURGBP", "Re3");
 	private static Renko r;
+	private static Renko batchR;
+	private static long[] times;
+	private static double[] prices;
 	
 	@BeforeAll
 	void loadTickDataAndBuildRenko() {
 		List<OHLCV> rawTicks = factory.getTicksList();
 		r = new Renko(rawTicks, 0.0003);
+		
+		times = new long[rawTicks.size()];
+		prices = new double[rawTicks.size()];
+		for (int i = 0; i < rawTicks.size(); i++) {
+			times[i] = BrickStore.toEpochNanos(rawTicks.get(i).getDatetime());
+			prices[i] = rawTicks.get(i).getClose();
+		}
+		int half = rawTicks.size() / 2;
+		batchR = new Renko(times, prices, 0, half, 0.0003);
+		batchR.addTicks(times, prices, half, rawTicks.size());
 	}
 		
 	@ParameterizedTest
@@ -34,4 +60,217 @@ class EURGBP_Test {
 		// Overriding "toString" and "equals" of OHLCV class did the trick
         assertEquals(ohlcvList, renkoMap);
 	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+    @DisplayName("OHLC(all renko-modes) from batches of primitive arrays should be strictly equal to renkoPython")
+	void RenkoJava_BatchArrays_ShouldBeStrictlyEqual_RenkoPy (String mode) {
+		List<OHLCV> renkoMap = batchR.renkodf(mode);
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode);
+        assertEquals(ohlcvList, renkoMap);
+	}
+	
+	@Test
+    @DisplayName("Batches of primitive arrays (SIMD scan) should build the same bricks and loop state of addPrice")
+	void RenkoJava_BatchArrays_ShouldBeIdenticalTo_AddPrice () {
+		// Run with '--add-modules jdk.incubator.vector' (see pom.xml), so the scan is tested
+		assertTrue(VectorBandScan.isAvailable());
+		// Random walk of quiet stretches, gaps and a few NaN prices
+		Random random = new Random(7);
+		int size = 50_000;
+		long[] walkTimes = new long[size];
+		double[] walkPrices = new double[size];
+		List<OHLCV> walkTicks = new ArrayList<>(size);
+		double price = 0.8600;
+		for (int i = 0; i < size; i++) {
+			int move = random.nextInt(100) == 0 ? random.nextInt(40) : random.nextInt(3);
+			price += (random.nextBoolean() ? move : -move) * 0.00001;
+			walkTimes[i] = i;
+			walkPrices[i] = random.nextInt(1000) == 0 ? Double.NaN : price;
+			walkTicks.add(new OHLCV(walkTimes[i], walkPrices[i]));
+		}
+		Renko expected = new Renko(walkTicks, 0.0003);
+		Renko actual = new Renko(walkTimes, walkPrices, 0, size / 3, 0.0003);
+		actual.addTicks(walkTimes, walkPrices, size / 3, size);
+		
+		BrickStore expectedStore = expected.getBrickStore();
+		BrickStore actualStore = actual.getBrickStore();
+		assertTrue(expectedStore.size() > 100);
+		assertEquals(expectedStore.size(), actualStore.size());
+		for (int i = 0; i < expectedStore.size(); i++) {
+			assertEquals(expectedStore.getPrice(i), actualStore.getPrice(i));
+			assertEquals(expectedStore.getWick(i), actualStore.getWick(i));
+			assertEquals(expectedStore.getVolume(i), actualStore.getVolume(i));
+			assertEquals(expectedStore.getTickIndex(i), actualStore.getTickIndex(i));
+		}
+		// Same wick and volume in the loop, given to the next brick
+		OHLCV lastTick = new OHLCV((long) size, price + 0.01);
+		expected.append(List.of(lastTick));
+		actual.addTicks(new long[] {size}, new double[] {lastTick.getClose()}, 0, 1);
+		assertEquals(expected.renkodf(RenkoMode.WICKS), actual.renkodf(RenkoMode.WICKS));
+	}
+	
+	@Test
+    @DisplayName("Metrics should count the ticks, bricks, gaps and reversals of the bricks built")
+	void RenkoMetrics_ShouldCount_TicksBricksGapsReversals () throws JMException {
+		Renko metricsR = new Renko(times, prices, 0, 1, 0.0003);
+		RenkoMetrics metrics = new RenkoMetrics();
+		metricsR.setMetrics(metrics);
+		metricsR.addTicks(times, prices, 1, times.length);
+		metricsR.renkodf(RenkoMode.WICKS);
+		
+		BrickStore store = metricsR.getBrickStore();
+		long gaps = 0;
+		long reversals = 0;
+		for (int i = 2; i < store.size(); i++) {
+			if (store.getDirection(i) != store.getDirection(i-1) && store.getDirection(i-1) != 0) {
+				reversals++;
+			}
+			if (store.getTickIndex(i) == store.getTickIndex(i-1) && (i == store.size()-1 || store.getTickIndex(i+1) != store.getTickIndex(i))) {
+				gaps++;
+			}
+		}
+		assertEquals(times.length - 1, metrics.getTicks());
+		assertEquals(store.size() - 1, metrics.getBricks());
+		assertEquals(gaps, metrics.getGaps());
+		assertEquals(reversals, metrics.getReversals());
+		assertEquals(1, metrics.getRenkoAnimateCount());
+		
+		ObjectName name = metrics.registerMBean("EURGBP_Test");
+		try {
+			assertEquals(metrics.getBricks(), ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Bricks"));
+		} finally {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		}
+	}
+	
+	@Test
+    @DisplayName("Latency histogram percentiles should be within the bucket precision")
+	void LatencyHistogram_Percentiles_ShouldBeWithinPrecision () {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long nanos = 1; nanos <= 100_000; nanos++) {
+			histogram.record(nanos);
+		}
+		assertEquals(100_000, histogram.getCount());
+		assertEquals(100_000, histogram.getMax());
+		assertEquals(50_000.5, histogram.getMean());
+		long p50 = histogram.getValueAtPercentile(50);
+		long p99 = histogram.getValueAtPercentile(99);
+		assertTrue(p50 >= 50_000 && p50 <= 50_000 * 1.07, "p50=" + p50);
+		assertTrue(p99 >= 99_000 && p99 <= 100_000, "p99=" + p99);
+		assertEquals(100_000, histogram.getValueAtPercentile(100));
+	}
+	
+	@ParameterizedTest
+	@EnumSource(RenkoMode.class)
+    @DisplayName("Ranges of OHLC(all RenkoMode) should be strictly equal to the same range of renkoPython")
+	void RenkoJava_Renkos_ShouldBeStrictlyEqual_RenkoPyRange (RenkoMode mode) {
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode.getName());
+		int size = ohlcvList.size();
+		assertEquals(ohlcvList, r.renkos(mode, 0, size));
+		assertEquals(ohlcvList.subList(size / 3, size / 2), r.renkos(mode, size / 3, size / 2));
+		assertEquals(ohlcvList.subList(size - 50, size), r.lastRenkos(mode, 50));
+		assertEquals(ohlcvList, r.lastRenkos(mode, size + 1));
+		assertEquals(0, r.renkos(mode, size, size).size());
+		assertThrows(IndexOutOfBoundsException.class, () -> r.renkos(mode, 0, size + 1));
+		assertThrows(IllegalArgumentException.class, () -> r.lastRenkos(mode, -1));
+	}
+	
+	@Test
+    @DisplayName("Ranges of RSD should be views of the brick store")
+	void RenkoJava_Bricks_ShouldBeViewsOfBrickStore () {
+		BrickStore store = r.getBrickStore();
+		int size = store.size();
+		List<RSD> last = r.lastBricks(50);
+		assertEquals(50, last.size());
+		assertEquals(store.getPrice(size - 50), last.get(0).getPrice());
+		assertEquals(store.getPrice(size - 1), last.get(49).getPrice());
+		assertEquals(50, r.getRSD(-50).size());
+		assertEquals(store.getPrice(size - 50), r.getRSD(-50).get(0).getPrice());
+		assertEquals(size, r.getRSD(-(size + 1)).size());
+		assertEquals(10, r.getRSD(10).size());
+		assertEquals(store.getWick(5), r.bricks(5, 10).get(0).getWick());
+		assertThrows(UnsupportedOperationException.class, () -> last.remove(0));
+		assertThrows(IndexOutOfBoundsException.class, () -> r.bricks(-1, 10));
+	}
+	
+	@Test
+    @DisplayName("OHLC of all RenkoMode in a single pass should be strictly equal to renkoPython")
+	void RenkoJava_RenkodfAll_ShouldBeStrictlyEqual_RenkoPy () {
+		Map<RenkoMode, List<OHLCV>> renkos = r.renkodfAll(EnumSet.allOf(RenkoMode.class));
+		assertEquals(RenkoMode.values().length, renkos.size());
+		for (RenkoMode mode : RenkoMode.values()) {
+			assertEquals(factory.loadOHLCbyMode(mode.getName()), renkos.get(mode));
+		}
+		Map<RenkoMode, List<OHLCV>> some = r.renkodfAll(EnumSet.of(RenkoMode.NORMAL, RenkoMode.NONGAP));
+		assertEquals(2, some.size());
+		assertEquals(factory.loadOHLCbyMode("nongap"), some.get(RenkoMode.NONGAP));
+	}
+	
+	@ParameterizedTest
+	@EnumSource(RenkoMode.class)
+    @DisplayName("Incremental OHLC(all RenkoMode) of appended ticks should be strictly equal to renkoPython")
+	void RenkoJava_AppendIncremental_ShouldBeStrictlyEqual_RenkoPy (RenkoMode mode) {
+		List<OHLCV> rawTicks = factory.getTicksList();
+		int third = rawTicks.size() / 3;
+		Renko daily = new Renko(rawTicks.subList(0, third), 0.0003);
+		int firstSize = daily.renkodfIncremental(mode).size();
+		// The kept renkos are not changed by the caller
+		daily.renkodfIncremental(mode).get(firstSize - 1).setClose(0D);
+		
+		int newBricks = daily.append(rawTicks.subList(third, 2 * third));
+		newBricks += daily.append(rawTicks.subList(2 * third, rawTicks.size()));
+		List<OHLCV> renkoMap = daily.renkodfIncremental(mode);
+		
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode.getName());
+		assertEquals(ohlcvList, renkoMap);
+		assertEquals(ohlcvList.size() - firstSize, newBricks);
+		assertEquals(r.getBrickStore().getTickIndex(r.getBrickStore().size() - 1),
+				daily.getBrickStore().getTickIndex(daily.getBrickStore().size() - 1));
+	}
+	
+	@Test
+    @DisplayName("Bricks of the fixed-point engine should be exact multiples of the brick size")
+	void RenkoJava_FixedPoint_ShouldBeExactMultiples_BrickSize () {
+		Renko fixed = new Renko(factory.getTicksList(), 0.0003, 0.00001);
+		BrickStore store = fixed.getBrickStore();
+		for (int i = 0; i < store.size(); i++) {
+			long units = Math.round(store.getPrice(i) * 100_000);
+			assertEquals(0, units % 30);
+			assertEquals(units / 100_000D, store.getPrice(i));
+		}
+		assertThrows(IllegalArgumentException.class, () -> new Renko(factory.getTicksList(), 0.0003, 0.0002));
+		assertThrows(IllegalArgumentException.class, () -> new Renko(factory.getTicksList(), 0.00035, 0.0001));
+	}
+	
+	@Test
+    @DisplayName("Fixed-point engine should only diverge on a tick exactly on a brick boundary that the floating-point ratio misses")
+	void RenkoJava_FixedPoint_ShouldDiverge_OnBrickBoundaryTick () {
+		List<OHLCV> rawTicks = factory.getTicksList();
+		// First tick where the engines differ
+		int boundaryTick = 14077;
+		Renko floating = new Renko(rawTicks.subList(0, boundaryTick), 0.0003);
+		Renko fixed = new Renko(rawTicks.subList(0, boundaryTick), 0.0003, 0.00001);
+		assertEquals(floating.getRSD(null).size(), fixed.getRSD(null).size());
+		// Same bricks up to the floating-point error of the summed brick sizes
+		for (int i = 0; i < floating.getRSD(null).size(); i++) {
+			assertEquals(floating.getBrickStore().getPrice(i), fixed.getBrickStore().getPrice(i), 1e-12);
+			assertEquals(floating.getBrickStore().getDirection(i), fixed.getBrickStore().getDirection(i));
+			assertEquals(floating.getBrickStore().getWick(i), fixed.getBrickStore().getWick(i), 1e-12);
+			assertEquals(floating.getBrickStore().getVolume(i), fixed.getBrickStore().getVolume(i));
+		}
+		
+		// 0.8601 is 2 bricks below the last UP brick (0.8607), but the floating-point sum of the bricks is 0.8606999999999998
+		double price = rawTicks.get(boundaryTick).getClose();
+		BrickStore store = floating.getBrickStore();
+		double lastPrice = store.getPrice(store.size() - 1);
+		assertEquals(0.8601, price);
+		assertEquals(0.8606999999999998, lastPrice);
+		assertEquals(1, store.getDirection(store.size() - 1));
+		assertTrue((price - lastPrice) / 0.0003 > -2);
+		
+		assertEquals(0, floating.append(rawTicks.subList(boundaryTick, boundaryTick + 1)));
+		assertEquals(1, fixed.append(rawTicks.subList(boundaryTick, boundaryTick + 1)));
+		assertEquals(0.8601, fixed.getBrickStore().getPrice(fixed.getBrickStore().size() - 1));
+	}
 }
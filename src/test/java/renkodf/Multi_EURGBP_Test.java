@@ -0,0 +1,70 @@
+package renkodf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import renkodf.wrappers.OHLCV;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class Multi_EURGBP_Test {
+	
+	private static final DataFactory factory = new DataFactory("EURGBP", "Re3");
+	private static final double[] BRICK_SIZES = {0.0001, 0.0003, 0.0005, 0.001};
+	private static List<OHLCV> rawTicks;
+	private static MultiRenko mr;
+	
+	@BeforeAll
+	void loadTickDataAndBuildRenko() {
+		rawTicks = factory.getTicksList();
+		mr = new MultiRenko(rawTicks, BRICK_SIZES);
+	}
+		
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+    @DisplayName("OHLC(all renko-modes) with floating-point-arithmetic should be strictly equal to renkoPython")
+	void RenkoJava_ShouldBeStrictlyEqual_RenkoPy (String mode) {
+		List<OHLCV> renkoMap = mr.getRenko(0.0003).renkodf(mode);
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode);
+        assertEquals(ohlcvList, renkoMap);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+    @DisplayName("OHLC(all renko-modes) of every brick size should be strictly equal to single-size Renko")
+	void MultiRenko_ShouldBeStrictlyEqual_Renko (String mode) {
+		for (int b = 0; b < BRICK_SIZES.length; b++) {
+			Renko r = new Renko(rawTicks, BRICK_SIZES[b]);
+			assertEquals(r.renkodf(mode), mr.getRenko(b).renkodf(mode));
+			assertEquals(r.getRSD(null).size(), mr.getRenko(b).getRSD(null).size());
+		}
+	}
+	
+	@Test
+    @DisplayName("Ticks appended through getRenko should continue the tick indexes of the same Renko")
+	void MultiRenko_Append_ShouldContinue_TickIndexes () {
+		int third = rawTicks.size() / 3;
+		MultiRenko daily = new MultiRenko(rawTicks.subList(0, third), BRICK_SIZES);
+		assertSame(daily.getRenko(1), daily.getRenko(0.0003));
+		daily.getRenko(1).append(rawTicks.subList(third, 2 * third));
+		daily.getRenko(0.0003).append(rawTicks.subList(2 * third, rawTicks.size()));
+		
+		Renko r = new Renko(rawTicks, 0.0003);
+		BrickStore expected = r.getBrickStore();
+		BrickStore actual = daily.getRenko(1).getBrickStore();
+		assertEquals(r.renkodf(RenkoMode.WICKS), daily.getRenko(1).renkodf(RenkoMode.WICKS));
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.getTickIndex(i), actual.getTickIndex(i));
+		}
+	}
+}
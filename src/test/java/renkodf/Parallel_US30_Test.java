@@ -0,0 +1,101 @@
+package renkodf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import renkodf.wrappers.OHLCV;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class Parallel_US30_Test {
+
+	private static final DataFactory factory = new DataFactory("US30", "Re50");
+	private static List<OHLCV> rawTicks;
+	private static ForkJoinPool pool;
+	
+	@BeforeAll
+	void loadTickDataAndCreatePool() {
+		rawTicks = factory.getTicksList();
+		pool = new ForkJoinPool(4);
+	}
+	
+	@AfterAll
+	void shutdownPool() {
+		pool.shutdown();
+	}
+		
+	@ParameterizedTest
+	@EnumSource(RenkoMode.class)
+    @DisplayName("OHLC(all renko-modes) of the parallel fixed-point engine should be strictly equal to renkoPython")
+	void RenkoJava_ShouldBeStrictlyEqual_RenkoPy (RenkoMode mode) {
+		List<OHLCV> renkoMap = ParallelRenko.build(rawTicks, 5D, 0.1).renkodf(mode);
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode.getName());
+        assertEquals(ohlcvList, renkoMap);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 7, 64, 4096, 1_000_000})
+    @DisplayName("Renko Single Data of any chunk size should be identical to sequential fixed-point Renko")
+	void ParallelRenko_ShouldBeIdentical_Renko (int chunkSize) {
+		assertIdentical(new Renko(rawTicks, 5D, 0.1), ParallelRenko.build(rawTicks, 5D, 0.1, chunkSize, pool));
+		
+		List<OHLCV> eurgbp = new DataFactory("EURGBP", "Re3").getTicksList();
+		assertIdentical(new Renko(eurgbp, 0.0003, 0.00001), ParallelRenko.build(eurgbp, 0.0003, 0.00001, chunkSize, pool));
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1, 3, 50, 1000})
+    @DisplayName("Renko Single Data of primitive ticks with large gaps should be identical to sequential fixed-point Renko")
+	void ParallelRenko_Gaps_ShouldBeIdentical_Renko (int chunkSize) {
+		// Random walk on a 0.25 tick grid, sometimes jumping several bricks
+		Random random = new Random(chunkSize);
+		long[] times = new long[100_000];
+		double[] prices = new double[times.length];
+		long units = 40_000;
+		for (int i = 0; i < times.length; i++) {
+			int move = random.nextInt(50) == 0 ? random.nextInt(200) : random.nextInt(3);
+			units += random.nextBoolean() ? move : -move;
+			times[i] = (i + 1) * 1_000_000_000L;
+			prices[i] = units * 0.25;
+		}
+		assertIdentical(new Renko(times, prices, 10, times.length, 10D, 0.25),
+				ParallelRenko.build(times, prices, 10, times.length, 10D, 0.25, chunkSize, pool));
+	}
+	
+	@Test
+    @DisplayName("A single tick should only have the initial brick")
+	void ParallelRenko_SingleTick_ShouldBeIdentical_Renko () {
+		assertIdentical(new Renko(rawTicks.subList(0, 1), 5D, 0.1), ParallelRenko.build(rawTicks.subList(0, 1), 5D, 0.1));
+	}
+	
+	private static void assertIdentical(Renko expectedRenko, Renko actualRenko) {
+		BrickStore expected = expectedRenko.getBrickStore();
+		BrickStore actual = actualRenko.getBrickStore();
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.getPrice(i), actual.getPrice(i));
+			assertEquals(expected.getDirection(i), actual.getDirection(i));
+			assertEquals(expected.getWick(i), actual.getWick(i));
+			assertEquals(expected.getVolume(i), actual.getVolume(i));
+			assertEquals(expected.getTickIndex(i), actual.getTickIndex(i));
+			assertEquals(expected.getDate(i), actual.getDate(i));
+		}
+		// Same loop state, so the next ticks add the same bricks
+		OHLCV lastTick = new OHLCV(Long.MAX_VALUE, expected.getPrice(expected.size() - 1) * 2);
+		assertEquals(expectedRenko.append(List.of(lastTick)), actualRenko.append(List.of(lastTick)));
+		assertEquals(expected.getWick(expected.size() - 1), actual.getWick(actual.size() - 1));
+		assertEquals(expected.getVolume(expected.size() - 1), actual.getVolume(actual.size() - 1));
+	}
+}
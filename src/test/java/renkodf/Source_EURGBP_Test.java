@@ -0,0 +1,156 @@
+package renkodf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import renkodf.sources.BinaryTickFile;
+import renkodf.sources.BinaryTickSource;
+import renkodf.sources.ParquetTickSource;
+import renkodf.sources.TickQueue;
+import renkodf.sources.TickQueue.OverflowPolicy;
+import renkodf.sources.TickSource;
+import renkodf.wrappers.OHLCV;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class Source_EURGBP_Test {
+	
+	private static final DataFactory factory = new DataFactory("EURGBP", "Re3");
+	private static final String TICKS_PATH = new File("src/test/resources/EURGBP_T1_cT.parquet").getAbsolutePath();
+	private static Renko r;
+	
+	@BeforeAll
+	void streamTickDataAndBuildRenko() throws IOException {
+		try (TickSource source = new ParquetTickSource(TICKS_PATH)) {
+			r = new Renko(source, 0.0003);
+		}
+	}
+		
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+    @DisplayName("OHLC(all renko-modes) with floating-point-arithmetic should be strictly equal to renkoPython")
+	void RenkoJava_ShouldBeStrictlyEqual_RenkoPy (String mode) {
+		List<OHLCV> renkoMap = r.renkodf(mode);
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode);
+        assertEquals(ohlcvList, renkoMap);
+	}
+	
+	@Test
+    @DisplayName("ParquetTickSource should reject missing or mistyped columns")
+	void ParquetTickSource_ShouldReject_InvalidColumns () {
+		assertThrows(IllegalArgumentException.class, () -> new ParquetTickSource(TICKS_PATH, "datetime", "missing"));
+		assertThrows(IllegalArgumentException.class, () -> new ParquetTickSource(TICKS_PATH, "missing", "bid"));
+		assertThrows(IllegalArgumentException.class, () -> new ParquetTickSource(TICKS_PATH, "bid", "bid"));
+	}
+	
+	@Test
+    @DisplayName("Ticks of TickSource should be equal to the row reader ones")
+	void ParquetTickSource_ShouldBeEqual_RowReader () throws IOException {
+		List<OHLCV> rawTicks = factory.getTicksList();
+		try (TickSource source = new ParquetTickSource(TICKS_PATH)) {
+			int i = 0;
+			while (source.next()) {
+				OHLCV tick = rawTicks.get(i++);
+				assertEquals(tick.getClose(), source.price());
+				assertEquals(BrickStore.toEpochNanos(tick.getDatetime()), source.time());
+			}
+			assertEquals(rawTicks.size(), i);
+		}
+	}
+	
+	@ParameterizedTest
+	@ValueSource(longs = {0L, 1000L})
+    @DisplayName("Ticks of the binary tick file (plain/delta) should be equal to the parquet ones")
+	void BinaryTickSource_ShouldBeEqual_ParquetTickSource (long deltaUnitNanos, @TempDir Path tempDir) throws IOException {
+		Path binaryPath = tempDir.resolve("EURGBP.ticks");
+		long written = BinaryTickFile.convert(TICKS_PATH, binaryPath.toString(), deltaUnitNanos);
+		try (TickSource parquet = new ParquetTickSource(TICKS_PATH);
+				BinaryTickSource binary = new BinaryTickSource(binaryPath)) {
+			assertEquals(written, binary.size());
+			long i = 0;
+			while (parquet.next()) {
+				assertTrue(binary.next());
+				assertEquals(parquet.time(), binary.time());
+				assertEquals(parquet.price(), binary.price());
+				i++;
+			}
+			assertFalse(binary.next());
+			assertEquals(written, i);
+		}
+		try (TickSource binary = new BinaryTickSource(binaryPath)) {
+			assertEquals(factory.loadOHLCbyMode("wicks"), new Renko(binary, 0.0003).renkodf("wicks"));
+		}
+	}
+	
+	@Test
+    @DisplayName("Ticks drained from TickQueue by another thread should build the same renkos of renkoPython")
+	void TickQueue_ShouldBeStrictlyEqual_RenkoPy () throws Exception {
+		TickQueue queue = new TickQueue(1024, OverflowPolicy.BLOCK);
+		Thread producer = new Thread(() -> {
+			try (TickSource source = new ParquetTickSource(TICKS_PATH)) {
+				// The first tick is given to the constructor
+				source.next();
+				while (source.next()) {
+					queue.offer(source.time(), source.price());
+				}
+			} catch (IOException exception) {
+				throw new java.io.UncheckedIOException(exception);
+			}
+		});
+		producer.start();
+		
+		List<OHLCV> rawTicks = factory.getTicksList();
+		OHLCV firstTick = rawTicks.get(0);
+		RenkoWS r = new RenkoWS(BrickStore.toEpochNanos(firstTick.getDatetime()), (double) firstTick.getClose(), 0.0003);
+		int drained = 0;
+		while (drained < rawTicks.size()-1) {
+			int ticks = queue.drainTo(r::addPrice, 256);
+			if (ticks == 0) {
+				Thread.yield();
+			}
+			drained += ticks;
+		}
+		producer.join();
+		
+		List<OHLCV> renkoMap = r.renkoAnimate("wicks");
+		renkoMap.remove(renkoMap.size()-1);
+        assertEquals(factory.loadOHLCbyMode("wicks"), renkoMap);
+        assertEquals(0, queue.size());
+	}
+	
+	@Test
+    @DisplayName("TickQueue with the DROP policy should drop and count the ticks when full")
+	void TickQueue_WhenFull_ShouldDropTicks () {
+		TickQueue queue = new TickQueue(3, OverflowPolicy.DROP);
+		for (int i = 0; i < queue.capacity(); i++) {
+			assertTrue(queue.offer(i, i));
+		}
+		assertFalse(queue.offer(10, 10));
+		assertEquals(1, queue.getDroppedCount());
+		assertEquals(4, queue.size());
+		
+		assertEquals(2, queue.drainTo((time, price) -> {}, 2));
+		assertTrue(queue.offer(11, 11));
+		assertEquals(3, queue.size());
+		
+		// A negative maximum would move the consumer back
+		assertThrows(IllegalArgumentException.class, () -> queue.drainTo((time, price) -> {}, -1));
+		assertEquals(0, queue.drainTo((time, price) -> {}, 0));
+		assertEquals(3, queue.size());
+	}
+}
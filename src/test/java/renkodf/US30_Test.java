@@ -1,17 +1,26 @@
 package renkodf;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.RandomAccess;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import renkodf.wrappers.OHLCV;
+import renkodf.wrappers.RSD;
 
 @TestInstance(Lifecycle.PER_CLASS)
 class US30_Test {
@@ -34,4 +43,217 @@ class US30_Test {
 		// Overriding "toString" and "equals" of OHLCV class did the trick
         assertEquals(ohlcvList, renkoMap);
 	}
+	
+	@ParameterizedTest
+	@EnumSource(RenkoMode.class)
+    @DisplayName("OHLC(all RenkoMode) should be strictly equal to renkoPython")
+	void RenkoJava_RenkoMode_ShouldBeStrictlyEqual_RenkoPy (RenkoMode mode) {
+		List<OHLCV> renkoMap = r.renkodf(mode);
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode.getName());
+        assertEquals(ohlcvList, renkoMap);
+	}
+
+	@Test
+    @DisplayName("Gaps kept as runs should be strictly equal to gaps added brick by brick")
+	void RenkoJava_GapRuns_ShouldBeStrictlyEqual_BrickByBrick () {
+		List<OHLCV> rawTicks = factory.getTicksList();
+		// Small brick size, so most of the bricks are 'artificial'
+		Renko runs = new Renko(rawTicks, 0.5D);
+
+		BrickBuilder builder = new BrickBuilder(new BrickStore(), 0.5D);
+		builder.setBrickHook(() -> {});
+		builder.init(0, rawTicks.get(0).getDatetime(), rawTicks.get(0).getClose());
+		for (int i = 1; i < rawTicks.size(); i++) {
+			builder.addPrice(i, rawTicks.get(i).getDatetime(), rawTicks.get(i).getClose());
+		}
+		Renko bricks = new Renko(builder, rawTicks.size());
+
+		BrickStore runStore = runs.getBrickStore();
+		BrickStore brickStore = bricks.getBrickStore();
+		assertEquals(brickStore.size(), runStore.size());
+		assertTrue(runStore.rowCount() < runStore.size());
+		for (int i = 0; i < brickStore.size(); i++) {
+			assertEquals(brickStore.getPrice(i), runStore.getPrice(i));
+			assertEquals(brickStore.getDirection(i), runStore.getDirection(i));
+			assertEquals(brickStore.getWick(i), runStore.getWick(i));
+			assertEquals(brickStore.getVolume(i), runStore.getVolume(i));
+			assertEquals(brickStore.getTime(i), runStore.getTime(i));
+			assertEquals(brickStore.getTickIndex(i), runStore.getTickIndex(i));
+		}
+		for (RenkoMode mode : RenkoMode.values()) {
+			assertEquals(bricks.renkodf(mode), runs.renkodf(mode));
+		}
+	}
+	
+	@Test
+    @DisplayName("Bricks between two times should be equal to a linear scan of the brick times")
+	void RenkoJava_BricksBetween_ShouldBeEqual_LinearScan () {
+		BrickStore store = r.getBrickStore();
+		int size = store.size();
+		long start = store.getTime(size / 3);
+		long end = store.getTime(size / 2) + 1;
+		int from = 0;
+		while (store.getTime(from) < start) {
+			from++;
+		}
+		int to = from;
+		while (to < size && store.getTime(to) < end) {
+			to++;
+		}
+		List<RSD> between = r.bricksBetween(start, end);
+		assertEquals(to - from, between.size());
+		assertEquals(store.getPrice(from), between.get(0).getPrice());
+		assertEquals(store.getPrice(to - 1), between.get(between.size() - 1).getPrice());
+		assertEquals(0, r.bricksBetween(end, start).size());
+		assertEquals(store.getPrice(to - 1), r.brickAt(end - 1).getPrice());
+		assertEquals(store.getPrice(size - 1), r.brickAt(Long.MAX_VALUE).getPrice());
+		assertNull(r.brickAt(store.getTime(0) - 1));
+	}
+	
+	@Test
+    @DisplayName("Time queries should reject unknown datetime types and take Numbers as epoch nanoseconds")
+	void RenkoJava_TimeQueries_ShouldRejectUnknownDatetimes () {
+		List<OHLCV> ticks = new ArrayList<>();
+		List<OHLCV> nanosTicks = new ArrayList<>();
+		double[] prices = {100, 106, 112, 101, 95};
+		for (int i = 0; i < prices.length; i++) {
+			ticks.add(new OHLCV("2023-01-0" + (i + 1), prices[i]));
+			nanosTicks.add(new OHLCV((i + 1) * 1_000_000_000L, prices[i]));
+		}
+		Renko untimed = new Renko(ticks, 5D);
+		assertEquals(BrickStore.NO_TIME, untimed.getBrickStore().getTime(0));
+		assertThrows(IllegalStateException.class, () -> untimed.bricksBetween(0, Long.MAX_VALUE));
+		assertThrows(IllegalStateException.class, () -> untimed.brickAt(0));
+		
+		Renko nanos = new Renko(nanosTicks, 5D);
+		assertEquals(3_000_000_000L, nanos.brickAt(3_500_000_000L).getDate());
+		assertEquals(nanos.getBrickStore().size() - 1, nanos.bricksBetween(2_000_000_000L, Long.MAX_VALUE).size());
+		// Read as nanoseconds, so milliseconds are all before the first second
+		assertNull(nanos.brickAt(2_500L));
+	}
+	
+	@ParameterizedTest
+	@EnumSource(RenkoMode.class)
+    @DisplayName("Lazy view of OHLC(all RenkoMode) should be strictly equal to renkoPython")
+	void RenkoJava_RenkodfView_ShouldBeStrictlyEqual_RenkoPy (RenkoMode mode) {
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode.getName());
+		List<OHLCV> view = r.renkodfView(mode);
+		int size = ohlcvList.size();
+		assertEquals(ohlcvList, view);
+		assertEquals(ohlcvList.subList(size - 30, size - 10), view.subList(size - 30, size - 10));
+		assertEquals(ohlcvList.get(size / 2), view.get(size / 2));
+		assertTrue(view instanceof RandomAccess);
+	}
+	
+	@ParameterizedTest
+	@EnumSource(RenkoMode.class)
+    @DisplayName("OHLC(all RenkoMode) of the fixed-point engine should be strictly equal to renkoPython")
+	void RenkoJava_FixedPoint_ShouldBeStrictlyEqual_RenkoPy (RenkoMode mode) {
+		Renko fixed = new Renko(factory.getTicksList(), 5D, 0.1);
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode.getName());
+        assertEquals(ohlcvList, fixed.renkodf(mode));
+        assertEquals(r.renkodf(mode), fixed.renkodf(mode));
+        
+        // Same bricks of the floating-point engine, the gaps are only kept as runs by the latter
+        BrickStore expected = r.getBrickStore();
+        BrickStore actual = fixed.getBrickStore();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+        	assertEquals(expected.getPrice(i), actual.getPrice(i));
+        	assertEquals(expected.getDirection(i), actual.getDirection(i));
+        	assertEquals(expected.getWick(i), actual.getWick(i));
+        	assertEquals(expected.getVolume(i), actual.getVolume(i));
+        	assertEquals(expected.getTickIndex(i), actual.getTickIndex(i));
+        }
+	}
+	
+	@Test
+    @DisplayName("Bricks of a gap kept as a run should be the same in any read order and from concurrent readers")
+	void BrickStore_RunReads_ShouldNotDependOn_ReadOrder () throws InterruptedException {
+		// A single gap of 1000 bricks after the first one
+		long[] times = {1L, 2L};
+		double[] prices = {30000.3, 35011.7};
+		Renko gap = new Renko(times, prices, 0, 2, 5D);
+		BrickStore store = gap.getBrickStore();
+		int size = store.size();
+		assertTrue(store.rowCount() < size);
+		
+		double[] expectedPrice = new double[size];
+		double[] expectedWick = new double[size];
+		for (int i = 0; i < size; i++) {
+			expectedPrice[i] = store.getPrice(i);
+			expectedWick[i] = store.getWick(i);
+		}
+		double accumulated = expectedPrice[1];
+		for (int i = 2; i < size; i++) {
+			assertEquals(accumulated, expectedWick[i]);
+			accumulated = accumulated + 5D;
+			assertEquals(accumulated, expectedPrice[i]);
+		}
+		for (int i = size - 1; i >= 0; i--) {
+			assertEquals(expectedPrice[i], store.getPrice(i));
+			assertEquals(expectedWick[i], store.getWick(i));
+		}
+		
+		List<Throwable> failures = new ArrayList<>();
+		Thread[] readers = new Thread[2];
+		for (int t = 0; t < readers.length; t++) {
+			int stride = t * 2 + 1;
+			readers[t] = new Thread(() -> {
+				try {
+					for (int n = 0; n < 200; n++) {
+						for (int i = (n * stride) % size; i < size; i += stride) {
+							assertEquals(expectedPrice[i], store.getPrice(i));
+							assertEquals(expectedWick[i], store.getWick(i));
+						}
+					}
+				} catch (Throwable failure) {
+					synchronized (failures) {
+						failures.add(failure);
+					}
+				}
+			});
+			readers[t].start();
+		}
+		for (Thread reader : readers) {
+			reader.join();
+		}
+		assertTrue(failures.isEmpty(), failures.toString());
+	}
+	
+	@ParameterizedTest
+	@ValueSource(doubles = {2.5, 5, 10})
+    @DisplayName("Fixed-point engine should accept tick sizes above 1 or not 1/n")
+	void RenkoJava_FixedPoint_ShouldAccept_AnyDecimalTickSize (double tickSize) {
+		// Random walk on a 10 grid, so it's also on the grid of each tick size
+		Random random = new Random(42);
+		int size = 20_000;
+		long[] times = new long[size];
+		double[] prices = new double[size];
+		long units = 4000;
+		for (int i = 0; i < size; i++) {
+			int move = random.nextInt(50) == 0 ? random.nextInt(40) : random.nextInt(3);
+			units += random.nextBoolean() ? move : -move;
+			times[i] = i;
+			prices[i] = units * 10D;
+		}
+		BrickStore expected = new Renko(times, prices, 0, size, 50D, 0.5).getBrickStore();
+		BrickStore actual = new Renko(times, prices, 0, size, 50D, tickSize).getBrickStore();
+		assertTrue(expected.size() > 100);
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.getPrice(i), actual.getPrice(i));
+			assertEquals(expected.getDirection(i), actual.getDirection(i));
+			assertEquals(expected.getWick(i), actual.getWick(i));
+			assertEquals(expected.getTickIndex(i), actual.getTickIndex(i));
+		}
+		assertThrows(IllegalArgumentException.class, () -> new Renko(times, prices, 0, size, 52D, tickSize));
+	}
+	
+	@ParameterizedTest
+	@ValueSource(doubles = {0, -0.1, Double.NaN, 1.0000000001})
+    @DisplayName("Fixed-point engine should reject tick sizes without an exact ratio")
+	void RenkoJava_FixedPoint_ShouldReject_InvalidTickSize (double tickSize) {
+		assertThrows(IllegalArgumentException.class, () -> new Renko(new long[] {0}, new double[] {1D}, 0, 1, 5D, tickSize));
+	}
 }
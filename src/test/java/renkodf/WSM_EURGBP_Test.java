@@ -2,6 +2,9 @@ package renkodf;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -54,4 +57,52 @@ class WSM_EURGBP_Test {
 		// Overriding "toString" and "equals" of OHLCV class did the trick
         assertEquals(ohlcvList, renkoMap);
 	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+    @DisplayName("OHLC(all renko-modes) from RenkoListener should be strictly equal to renkoPython")
+	void RenkoListener_ShouldBeStrictlyEqual_RenkoPy (String mode) {
+		List<OHLCV> renkoMap = new ArrayList<>();
+		
+		OHLCV firstTick = rawTicks.get(0);
+		RenkoWSModified r = new RenkoWSModified(firstTick.getDatetime(), firstTick.getClose(), 0.0003);
+		r.addListener(RenkoMode.fromName(mode), (renkoMode, brick) -> renkoMap.add(brick));
+		
+		for (int i = 1; i < rawTicks.size(); i++) {
+			OHLCV tick = rawTicks.get(i);
+			r.addPrices(tick.getDatetime(), tick.getClose());
+		}
+		
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode);
+        assertEquals(ohlcvList, renkoMap);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+    @DisplayName("OHLC(all renko-modes) of a restored snapshot should be strictly equal to renkoPython")
+	void RenkoJava_RestoredSnapshot_ShouldBeStrictlyEqual_RenkoPy (String mode) throws IOException {
+		List<OHLCV> renkoMap = new ArrayList<>();
+		
+		OHLCV firstTick = rawTicks.get(0);
+		RenkoWSModified r = new RenkoWSModified(firstTick.getDatetime(), firstTick.getClose(), 0.0003);
+		r.addListener(RenkoMode.fromName(mode), (renkoMode, brick) -> renkoMap.add(brick));
+		
+		int half = rawTicks.size() / 2;
+		for (int i = 1; i < half; i++) {
+			OHLCV tick = rawTicks.get(i);
+			r.addPrices(tick.getDatetime(), tick.getClose());
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		r.writeSnapshot(out);
+		RenkoWSModified restored = RenkoWSModified.restore(new ByteArrayInputStream(out.toByteArray()));
+		restored.addListener(RenkoMode.fromName(mode), (renkoMode, brick) -> renkoMap.add(brick));
+		
+		for (int i = half; i < rawTicks.size(); i++) {
+			OHLCV tick = rawTicks.get(i);
+			restored.addPrices(tick.getDatetime(), tick.getClose());
+		}
+		
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode);
+        assertEquals(ohlcvList, renkoMap);
+	}
 }
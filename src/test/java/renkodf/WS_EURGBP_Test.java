@@ -1,15 +1,26 @@
 package renkodf;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import renkodf.wrappers.OHLCV;
@@ -49,5 +60,266 @@ class WS_EURGBP_Test {
 		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode);
 		// Overriding "toString" and "equals" of OHLCV class did the trick
         assertEquals(ohlcvList, renkoMap);
+        // The returned list belongs to the caller
+        assertEquals(ohlcvList.size() + 1, r.renkoAnimate(mode).size());
+	}
+	
+	@ParameterizedTest
+	@EnumSource(RenkoMode.class)
+    @DisplayName("Modifying the returned renkos should not change the next renkoAnimate(all renko-modes)")
+	void RenkoJava_ModifiedRenkos_ShouldNotChange_NextRenkoAnimate (RenkoMode mode) {
+		OHLCV firstTick = rawTicks.get(0);
+		RenkoWS r = new RenkoWS(firstTick.getDatetime(), firstTick.getClose(), 0.0003);
+		for (int i = 1; i < rawTicks.size(); i++) {
+			OHLCV tick = rawTicks.get(i);
+			r.addPrices(tick.getDatetime(), tick.getClose());
+		}
+		List<OHLCV> renkoMap = r.renkoAnimate(mode);
+		OHLCV formingRenko = new OHLCV(renkoMap.get(renkoMap.size()-1));
+		for (OHLCV renko : renkoMap) {
+			renko.setOpen(0D);
+			renko.setClose(0D);
+		}
+		// Same copy at each access, until the list is modified
+		assertEquals(0D, renkoMap.get(0).getClose());
+		renkoMap.remove(0);
+		assertEquals(0D, renkoMap.get(0).getClose());
+		r.lastRenkos(mode, 1).get(0).setClose(0D);
+		r.renkos(mode, 0, 1).get(0).setOpen(0D);
+		
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode.getName());
+		renkoMap = r.renkoAnimate(mode);
+		assertEquals(formingRenko, renkoMap.remove(renkoMap.size()-1));
+        assertEquals(ohlcvList, renkoMap);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+    @DisplayName("OHLC(all renko-modes) from primitive ticks should be strictly equal to renkoPython")
+	void RenkoJava_PrimitiveTicks_ShouldBeStrictlyEqual_RenkoPy (String mode) {
+		OHLCV firstTick = rawTicks.get(0);
+		double firstPrice = firstTick.getClose();
+		RenkoWS r = new RenkoWS(BrickStore.toEpochNanos(firstTick.getDatetime()), firstPrice, 0.0003);
+		
+		for (int i = 1; i < rawTicks.size(); i++) {
+			OHLCV tick = rawTicks.get(i);
+			r.addPrice(BrickStore.toEpochNanos(tick.getDatetime()), tick.getClose());
+		}
+		List<OHLCV> renkoMap = r.renkoAnimate(mode);
+		renkoMap.remove(renkoMap.size()-1);
+		
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode);
+        assertEquals(ohlcvList, renkoMap);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+    @DisplayName("RenkoListener should be notified of the same OHLC(all renko-modes) of renkoAnimate")
+	void RenkoListener_ShouldBeEqual_RenkoAnimate (String mode) {
+		List<OHLCV> closedRenkos = new ArrayList<>();
+		List<OHLCV> formingRenkos = new ArrayList<>();
+		RenkoListener listener = new RenkoListener() {
+			@Override
+			public void onBrickClosed(RenkoMode renkoMode, OHLCV brick) {
+				closedRenkos.add(new OHLCV(brick.getDatetime(), brick.getOpen(), brick.getHigh(), brick.getLow(), brick.getClose(), brick.getVolume()));
+				// The given OHLCV belongs to the listener, the forming renko must not change
+				brick.setOpen(0D);
+				brick.setClose(0D);
+			}
+			@Override
+			public void onFormingUpdate(RenkoMode renkoMode, OHLCV formingRenko) {
+				formingRenkos.add(formingRenko);
+			}
+		};
+		
+		OHLCV firstTick = rawTicks.get(0);
+		RenkoWS r = new RenkoWS(firstTick.getDatetime(), firstTick.getClose(), 0.0003);
+		r.addListener(RenkoMode.fromName(mode), listener, true);
+		
+		for (int i = 1; i < rawTicks.size(); i++) {
+			OHLCV tick = rawTicks.get(i);
+			r.addPrices(tick.getDatetime(), tick.getClose());
+		}
+		List<OHLCV> renkoMap = r.renkoAnimate(mode);
+		
+        assertEquals(renkoMap.subList(0, renkoMap.size()-1), closedRenkos);
+        assertEquals(rawTicks.size()-1, formingRenkos.size());
+        assertEquals(renkoMap.get(renkoMap.size()-1), formingRenkos.get(formingRenkos.size()-1));
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+    @DisplayName("Bounded history OHLC(all renko-modes) should be strictly equal to the last renkos of renkoPython")
+	void RenkoJava_BoundedHistory_ShouldBeStrictlyEqual_LastRenkoPy (String mode) {
+		int maxBricks = 100;
+		OHLCV firstTick = rawTicks.get(0);
+		RenkoWS r = new RenkoWS(firstTick.getDatetime(), firstTick.getClose(), 0.0003, maxBricks);
+		
+		List<OHLCV> renkoMap = r.renkoAnimate(mode);
+		for (int i = 1; i < rawTicks.size(); i++) {
+			OHLCV tick = rawTicks.get(i);
+			if (r.addPrices(tick.getDatetime(), tick.getClose())) {
+				renkoMap = r.renkoAnimate(mode);
+			}
+		}
+		renkoMap.remove(renkoMap.size()-1);
+		
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode);
+		assertEquals(maxBricks, r.getBrickStore().size());
+        assertEquals(ohlcvList.subList(ohlcvList.size() - maxBricks, ohlcvList.size()), renkoMap);
+	}
+	
+	@ParameterizedTest
+	@EnumSource(RenkoMode.class)
+    @DisplayName("Bounded history with a gap longer than maxBricks should be strictly equal to the last unbounded renkos")
+	void RenkoJava_BoundedLongGap_ShouldBeStrictlyEqual_LastUnboundedRenkos (RenkoMode mode) {
+		int maxBricks = 5;
+		RenkoWS bounded = new RenkoWS(0L, 100D, 1D, maxBricks);
+		RenkoWS unbounded = new RenkoWS(0L, 100D, 1D);
+		
+		// 90 and 110 add more than 'maxBricks' bricks at once
+		double[] prices = {101, 102, 103, 90, 91, 93, 110, 104, 104.5};
+		for (int i = 0; i < prices.length; i++) {
+			bounded.addPrice(i + 1, prices[i]);
+			unbounded.addPrice(i + 1, prices[i]);
+			List<OHLCV> renkoMap = bounded.renkoAnimate(mode);
+			List<OHLCV> ohlcvList = unbounded.renkoAnimate(mode);
+	        assertEquals(ohlcvList.subList(ohlcvList.size() - renkoMap.size(), ohlcvList.size()), renkoMap);
+	        // The first kept brick of a long gap has no previous brick to be converted from
+	        assertTrue(renkoMap.size() >= Math.min(ohlcvList.size(), maxBricks));
+		}
+	}
+	
+	@ParameterizedTest
+	@EnumSource(RenkoMode.class)
+    @DisplayName("Last renkos of a bounded history should be strictly equal to the last renkos of renkoPython")
+	void RenkoJava_BoundedLastRenkos_ShouldBeStrictlyEqual_LastRenkoPy (RenkoMode mode) {
+		OHLCV firstTick = rawTicks.get(0);
+		RenkoWS r = new RenkoWS(firstTick.getDatetime(), firstTick.getClose(), 0.0003, 100);
+		
+		for (int i = 1; i < rawTicks.size(); i++) {
+			OHLCV tick = rawTicks.get(i);
+			if (r.addPrices(tick.getDatetime(), tick.getClose())) {
+				r.lastRenkos(mode, 1);
+			}
+		}
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode.getName());
+		int size = ohlcvList.size();
+		assertEquals(ohlcvList.subList(size - 20, size), r.lastRenkos(mode, 20));
+		assertEquals(ohlcvList.subList(size - 100, size - 90), r.renkos(mode, 0, 10));
+		assertEquals(ohlcvList.subList(size - 100, size), r.lastRenkos(mode, 500));
+		assertEquals(20, r.lastBricks(20).size());
+		assertEquals(r.getBrickStore().getPrice(99), r.lastBricks(20).get(19).getPrice());
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+    @DisplayName("OHLC(all renko-modes) of a restored snapshot should be strictly equal to renkoPython")
+	void RenkoJava_RestoredSnapshot_ShouldBeStrictlyEqual_RenkoPy (String mode) throws IOException {
+		OHLCV firstTick = rawTicks.get(0);
+		RenkoWS r = new RenkoWS(firstTick.getDatetime(), firstTick.getClose(), 0.0003);
+		RenkoWS bounded = new RenkoWS(firstTick.getDatetime(), firstTick.getClose(), 0.0003, 100);
+		
+		int half = rawTicks.size() / 2;
+		for (int i = 1; i < half; i++) {
+			OHLCV tick = rawTicks.get(i);
+			r.addPrices(tick.getDatetime(), tick.getClose());
+			if (bounded.addPrices(tick.getDatetime(), tick.getClose())) {
+				bounded.renkoAnimate(mode);
+			}
+		}
+		RenkoWS restored = RenkoWS.restore(new ByteArrayInputStream(snapshot(r)));
+		RenkoWS restoredBounded = RenkoWS.restore(new ByteArrayInputStream(snapshot(bounded)));
+		
+		for (int i = half; i < rawTicks.size(); i++) {
+			OHLCV tick = rawTicks.get(i);
+			restored.addPrices(tick.getDatetime(), tick.getClose());
+			bounded.addPrices(tick.getDatetime(), tick.getClose());
+			if (restoredBounded.addPrices(tick.getDatetime(), tick.getClose())) {
+				restoredBounded.renkoAnimate(mode);
+				bounded.renkoAnimate(mode);
+			}
+		}
+		List<OHLCV> renkoMap = restored.renkoAnimate(mode);
+		renkoMap.remove(renkoMap.size()-1);
+		
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode);
+        assertEquals(ohlcvList, renkoMap);
+        assertEquals(bounded.renkoAnimate(mode), restoredBounded.renkoAnimate(mode));
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+    @DisplayName("OHLC(all renko-modes) from buffer slices should be strictly equal to renkoPython")
+	void RenkoJava_BatchBuffers_ShouldBeStrictlyEqual_RenkoPy (String mode) {
+		LongBuffer times = LongBuffer.allocate(rawTicks.size());
+		DoubleBuffer prices = DoubleBuffer.allocate(rawTicks.size());
+		for (OHLCV tick : rawTicks) {
+			times.put(BrickStore.toEpochNanos(tick.getDatetime()));
+			prices.put(tick.getClose());
+		}
+		RenkoWS r = new RenkoWS(times.get(0), prices.get(0), 0.0003);
+		
+		// Slices of 1000 ticks, after the first one
+		int chunk = 1000;
+		for (int from = 1; from < rawTicks.size(); from += chunk) {
+			int to = Math.min(from + chunk, rawTicks.size());
+			times.limit(to).position(from);
+			prices.limit(to).position(from);
+			r.addTicks(times, prices);
+		}
+		List<OHLCV> renkoMap = r.renkoAnimate(mode);
+		renkoMap.remove(renkoMap.size()-1);
+		
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode);
+        assertEquals(ohlcvList, renkoMap);
+	}
+	
+	@Test
+    @DisplayName("Snapshots should be restored with two reads of the input, up to the end of the snapshot")
+	void RenkoJava_Snapshot_ShouldBeRead_AtOnce () throws IOException {
+		OHLCV firstTick = rawTicks.get(0);
+		RenkoWS r = new RenkoWS(firstTick.getDatetime(), firstTick.getClose(), 0.0003);
+		for (int i = 1; i < 10_000; i++) {
+			OHLCV tick = rawTicks.get(i);
+			r.addPrices(tick.getDatetime(), tick.getClose());
+		}
+		byte[] bytes = snapshot(r);
+		byte[] withNext = Arrays.copyOf(bytes, bytes.length + 1);
+		withNext[bytes.length] = 42;
+		
+		int[] reads = {0};
+		InputStream input = new ByteArrayInputStream(withNext) {
+			@Override
+			public synchronized int read() {
+				reads[0]++;
+				return super.read();
+			}
+			@Override
+			public synchronized int read(byte[] b, int off, int len) {
+				reads[0]++;
+				return super.read(b, off, len);
+			}
+		};
+		RenkoWS restored = RenkoWS.restore(input);
+		assertEquals(2, reads[0]);
+		assertEquals(42, input.read());
+		assertEquals(r.renkoAnimate(RenkoMode.WICKS), restored.renkoAnimate(RenkoMode.WICKS));
+	}
+	
+	@Test
+    @DisplayName("Snapshots should reject datetimes that cannot be restored")
+	void RenkoJava_Snapshot_ShouldReject_UnknownDatetimes () {
+		RenkoWS r = new RenkoWS("2023-06-23 00:00:00", 0.8601, 0.0003);
+		r.addPrices("2023-06-23 00:00:01", 0.8611);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertThrows(IllegalStateException.class, () -> r.writeSnapshot(out));
+		assertEquals(0, out.size());
+	}
+	
+	private static byte[] snapshot(RenkoWS r) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		r.writeSnapshot(out);
+		return out.toByteArray();
 	}
 }
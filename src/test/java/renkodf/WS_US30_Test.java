@@ -1,6 +1,7 @@
 package renkodf;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -50,4 +51,80 @@ class WS_US30_Test {
 		// Overriding "toString" and "equals" of OHLCV class did the trick
         assertEquals(ohlcvList, renkoMap);
 	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+    @DisplayName("OHLC(all renko-modes) animated at every tick should be strictly equal to renkoPython")
+	void RenkoJava_AnimateEveryTick_ShouldBeStrictlyEqual_RenkoPy (String mode) {
+		List<OHLCV> renkoMap = new ArrayList<>();
+		
+		OHLCV firstTick = rawTicks.get(0);
+		RenkoWS r = new RenkoWS(firstTick.getDatetime(), firstTick.getClose(), 5D);
+		
+		// Closed renkos are converted only once, between the calls
+		for (int i = 1; i < rawTicks.size(); i++) {
+			OHLCV tick = rawTicks.get(i);
+			r.addPrices(tick.getDatetime(), tick.getClose());
+			renkoMap = r.renkoAnimate(mode);
+		}
+		renkoMap.remove(renkoMap.size()-1);
+		
+		List<OHLCV> ohlcvList = factory.loadOHLCbyMode(mode);
+        assertEquals(ohlcvList, renkoMap);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "nongap", "reverse-wicks", "reverse-nongap", "fake-r-wicks", "fake-r-nongap"})
+    @DisplayName("Column views(all renko-modes) updated at every tick should be strictly equal to renkoAnimate")
+	void RenkoColumns_EveryTick_ShouldBeStrictlyEqual_RenkoAnimate (String mode) {
+		RenkoMode renkoMode = RenkoMode.fromName(mode);
+		OHLCV firstTick = rawTicks.get(0);
+		RenkoWS r = new RenkoWS(firstTick.getDatetime(), firstTick.getClose(), 5D);
+		
+		RenkoColumns columns = r.columns(renkoMode);
+		for (int i = 1; i < rawTicks.size(); i++) {
+			OHLCV tick = rawTicks.get(i);
+			r.addPrices(tick.getDatetime(), tick.getClose());
+			columns = r.columns(renkoMode);
+		}
+		List<OHLCV> renkoMap = r.renkoAnimate(renkoMode);
+		
+		List<OHLCV> columnsList = new ArrayList<>();
+		for (int i = 0; i < columns.size(); i++) {
+			columnsList.add(new OHLCV(columns.getTime(i), columns.getOpen(i), columns.getHigh(i),
+					columns.getLow(i), columns.getClose(i), columns.getVolume(i)));
+		}
+        assertEquals(renkoMap, columnsList);
+        assertEquals(renkoMap.get(3).getClose(), columns.close().get(3));
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"normal", "wicks", "reverse-nongap"})
+    @DisplayName("Column views of a bounded RenkoWS should only include the last bricks, same as renkoAnimate")
+	void RenkoColumns_Bounded_ShouldBeStrictlyEqual_RenkoAnimate (String mode) {
+		RenkoMode renkoMode = RenkoMode.fromName(mode);
+		OHLCV firstTick = rawTicks.get(0);
+		RenkoWS r = new RenkoWS(firstTick.getDatetime(), firstTick.getClose(), 5D, 20);
+		
+		for (int i = 1; i < rawTicks.size(); i++) {
+			OHLCV tick = rawTicks.get(i);
+			r.addPrices(tick.getDatetime(), tick.getClose());
+			RenkoColumns columns = r.columns(renkoMode);
+			List<OHLCV> renkoMap = r.renkoAnimate(renkoMode);
+			if (columns.closedSize() == 0) {
+				continue;
+			}
+			assertEquals(renkoMap.size(), columns.size());
+			int last = columns.size() - 1;
+			assertEquals(renkoMap.get(0).getClose(), columns.getClose(0));
+			assertEquals(renkoMap.get(last).getClose(), columns.close().get(last));
+		}
+		RenkoColumns columns = r.columns(renkoMode);
+		double[] close = RenkoColumns.copyRange(columns.close(), 5, 10);
+		for (int i = 0; i < close.length; i++) {
+			assertEquals(columns.getClose(5 + i), close[i]);
+		}
+		assertEquals(0, columns.close().position());
+		assertThrows(IndexOutOfBoundsException.class, () -> RenkoColumns.copyRange(columns.close(), 5, columns.size() + 1));
+	}
 }